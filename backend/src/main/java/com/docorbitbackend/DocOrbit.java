@@ -2,10 +2,21 @@ package com.docorbitbackend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.Map;
 
 @SpringBootApplication
+@EnableScheduling
 public class DocOrbit {
     public static void main(String[] args) {
-        SpringApplication.run(DocOrbit.class, args);
+        SpringApplication app = new SpringApplication(DocOrbit.class);
+        // Behind a reverse proxy the client IP (login rate limiting keys on it) is taken from
+        // X-Forwarded-For, but only when the proxy itself is on a loopback/private address
+        // (Tomcat's RemoteIpValve defaults), so clients connecting directly can't spoof it.
+        // Overridable like any property: server.forward-headers-strategy=none to ignore the header,
+        // server.tomcat.remoteip.internal-proxies=<regex> when the proxy sits on a public address.
+        app.setDefaultProperties(Map.of("server.forward-headers-strategy", "native"));
+        app.run(args);
     }
 }
@@ -0,0 +1,70 @@
+package com.docorbitbackend.config;
+
+import com.docorbitbackend.services.CatalogVersion;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Conditional GET for catalog reads.
+ * The ETag is the catalog version, so a matching If-None-Match is answered
+ * with 304 straight from here, before any controller or repository runs.
+ */
+@Component
+public class CatalogETagFilter extends OncePerRequestFilter {
+
+    // Reads whose body depends only on doctors, clinics and specializations
+    // (not on bookings, availability or the caller)
+    private static final Pattern CATALOG_READS = Pattern.compile(
+            "/api/doctors(/search(/faceted)?|/nearby|/specialization/[^/]+|/clinic/\\d+|/\\d+)?"
+                    + "|/api/clinics(/\\d+)?"
+                    + "|/api/specializations");
+
+    private final CatalogVersion catalogVersion;
+
+    public CatalogETagFilter(CatalogVersion catalogVersion) {
+        this.catalogVersion = catalogVersion;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod())
+                || !CATALOG_READS.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        // Read before the body is built: if the catalog changes meanwhile, this tag is already outdated
+        String etag = catalogVersion.etag();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        // Let browsers keep the body but always revalidate (which costs a 304)
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2); // weak comparison is allowed for If-None-Match
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+}
@@ -23,8 +23,8 @@ public class CorsConfig {
         ));
 
         config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
-        config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept"));
-        config.setExposedHeaders(List.of("Authorization"));
+        config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept", "Idempotency-Key", "If-None-Match"));
+        config.setExposedHeaders(List.of("Authorization", "X-Next-Cursor", "Idempotent-Replayed", "ETag", "Retry-After"));
         config.setAllowCredentials(true);
         config.setMaxAge(3600L);
 
@@ -0,0 +1,278 @@
+package com.docorbitbackend.config;
+
+import com.docorbitbackend.services.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Honors the Idempotency-Key header on mutating appointment requests.
+ * A retry with a key we've already answered gets the stored response back
+ * without reaching the controller (no new row, no new emails). The request is
+ * fingerprinted by method, path and a digest of query + body, so reusing a key
+ * for a different booking is rejected with 422 instead of replaying.
+ * Only responses whose body went through the filter are stored: errors sent
+ * with sendError are rendered later by the error page, so a retry runs again.
+ * The "already in progress" guard is per instance: concurrent retries that land
+ * on different instances can both run (a second booking of the same slot still
+ * fails on the slot unique key).
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // Appointment payloads are small (a batch is at most 50 items); the body is buffered to digest it
+    private static final int MAX_BODY_BYTES = 256 * 1024;
+
+    private final IdempotencyService idempotencyService;
+
+    public IdempotencyFilter(IdempotencyService idempotencyService) {
+        this.idempotencyService = idempotencyService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        boolean mutating = "POST".equals(method) || "PATCH".equals(method)
+                || "PUT".equals(method) || "DELETE".equals(method);
+        return !mutating
+                || !request.getRequestURI().startsWith("/api/appointments")
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + IDEMPOTENCY_KEY_HEADER + " header");
+            return;
+        }
+
+        // Form posts are read through the parameter map (the container parses those from the raw
+        // stream); any other body is buffered here and served again to the controller
+        boolean form = isForm(request);
+        byte[] body = new byte[0];
+        if (!form) {
+            if (request.getContentLengthLong() > MAX_BODY_BYTES) {
+                response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), "Request body too large");
+                return;
+            }
+            body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), "Request body too large");
+                return;
+            }
+            request = new CachedBodyRequest(request, body);
+        }
+
+        String key = idempotencyService.keyFor(currentUser(), idempotencyKey);
+        String fingerprint = fingerprint(request, form, body);
+
+        // 1. Already answered → replay
+        Optional<IdempotencyService.StoredResponse> stored = idempotencyService.find(key);
+        if (stored.isPresent()) {
+            replay(stored.get(), fingerprint, response);
+            return;
+        }
+
+        // 2. First request with this key still running → don't run it twice
+        if (!idempotencyService.tryBegin(key)) {
+            response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + IDEMPOTENCY_KEY_HEADER + " is already in progress");
+            return;
+        }
+
+        try {
+            // Re-check: the first request may have finished between find() and tryBegin()
+            stored = idempotencyService.find(key);
+            if (stored.isPresent()) {
+                replay(stored.get(), fingerprint, response);
+                return;
+            }
+
+            ErrorTrackingResponse wrapper = new ErrorTrackingResponse(response);
+            filterChain.doFilter(request, wrapper);
+
+            // 5xx means "try again", so only definitive answers are remembered; a sendError body
+            // isn't in the wrapper, and replaying the bare status would drop the message
+            if (wrapper.getStatus() < 500 && !wrapper.errorSent) {
+                String responseBody = new String(wrapper.getContentAsByteArray(), StandardCharsets.UTF_8);
+                idempotencyService.store(key, fingerprint, wrapper.getStatus(), wrapper.getContentType(), responseBody);
+            }
+            wrapper.copyBodyToResponse();
+        } finally {
+            idempotencyService.end(key);
+        }
+    }
+
+    private void replay(IdempotencyService.StoredResponse stored, String fingerprint,
+                        HttpServletResponse response) throws IOException {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                    IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+            return;
+        }
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.body() != null) {
+            byte[] bytes = stored.body().getBytes(StandardCharsets.UTF_8);
+            response.setContentLength(bytes.length);
+            response.getOutputStream().write(bytes);
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    // "POST /api/appointments/book <sha-256 of query and body>"; stays short however big the request is
+    private static String fingerprint(HttpServletRequest request, boolean form, byte[] body) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        String query = request.getQueryString();
+        digest.update((query != null ? query : "").getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        if (form) {
+            // Sorted, so the same fields in another order count as the same request
+            Map<String, String[]> params = new TreeMap<>(request.getParameterMap());
+            params.forEach((name, values) -> {
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                for (String value : values) {
+                    digest.update((byte) '=');
+                    digest.update(value.getBytes(StandardCharsets.UTF_8));
+                }
+                digest.update((byte) '&');
+            });
+        } else {
+            digest.update(body);
+        }
+        return request.getMethod() + " " + request.getRequestURI() + " " + HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static boolean isForm(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null
+                && contentType.toLowerCase(Locale.ROOT).startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+    }
+
+    // Notes when the response went out through sendError, whose body the wrapper never sees
+    private static class ErrorTrackingResponse extends ContentCachingResponseWrapper {
+
+        private boolean errorSent;
+
+        ErrorTrackingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            errorSent = true;
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            errorSent = true;
+            super.sendError(sc, msg);
+        }
+    }
+
+    // Request whose body was already read; hands the same bytes to whoever reads it next
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Body is already buffered");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
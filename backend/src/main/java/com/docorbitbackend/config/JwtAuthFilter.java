@@ -1,20 +1,28 @@
 package com.docorbitbackend.config;
 
+import com.docorbitbackend.security.AuthenticatedUser;
+import com.docorbitbackend.security.UserDetailsCache;
 import com.docorbitbackend.services.JwtService;
-import com.docorbitbackend.security.CustomUserDetailsService;
+import com.docorbitbackend.services.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
@@ -23,13 +31,17 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private JwtService jwtService;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getRequestURI();
         return path.startsWith("/api/auth/signup")
                 || path.startsWith("/api/auth/login")
+                || path.startsWith("/api/auth/refresh")
                 || path.startsWith("/api/auth/forgetpassword")
                 || path.startsWith("/test-email");
     }
@@ -47,7 +59,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         // 1. Get Authorization header
         final String authHeader = request.getHeader("Authorization");
         final String jwtToken;
-        final String username;
+        final Claims claims;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             System.out.println("➡️ No JWT token provided, continuing as public request.");
@@ -55,20 +67,22 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
-        // 2. Extract JWT
+        // 2. Extract JWT and verify it (once; repeat requests with the same token hit the claims cache)
         jwtToken = authHeader.substring(7); // remove "Bearer "
-        username = jwtService.extractUserName(jwtToken);
+        claims = jwtService.verify(jwtToken);
 
-        // 3. Validate token and set authentication
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        // 3. Build the principal and set authentication
+        if (claims != null && claims.getSubject() != null
+                && !tokenRevocationService.isRevoked(claims)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails principal = principalFrom(claims);
 
-            if (jwtService.validateToken(jwtToken, userDetails)) {
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(
-                                userDetails,
+                                principal,
                                 null,
-                                userDetails.getAuthorities()
+                                principal.getAuthorities()
                         );
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
@@ -79,4 +93,24 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // ✅ Straight from the verified claims; only tokens issued before roles were embedded fall back to a lookup
+    private UserDetails principalFrom(Claims claims) {
+        Object roles = claims.get(JwtService.CLAIM_ROLES);
+        Object userId = claims.get(JwtService.CLAIM_USER_ID);
+        if (roles instanceof List<?> roleNames && userId instanceof Number id) {
+            List<GrantedAuthority> authorities = new ArrayList<>(roleNames.size());
+            for (Object role : roleNames) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
+            }
+            return new AuthenticatedUser(id.longValue(), claims.getSubject(), authorities);
+        }
+
+        try {
+            UserDetails userDetails = userDetailsCache.get(claims.getSubject());
+            return jwtService.validateToken(claims, userDetails) ? userDetails : null;
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
 }
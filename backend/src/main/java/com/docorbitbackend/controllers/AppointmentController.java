@@ -1,17 +1,26 @@
 package com.docorbitbackend.controllers;
 
+import com.docorbitbackend.dtos.requestdtos.AppointmentCursor;
+import com.docorbitbackend.dtos.requestdtos.BatchBookingRequest;
 import com.docorbitbackend.dtos.responsedtos.AppointmentResponseDto;
+import com.docorbitbackend.dtos.responsedtos.BatchBookingResult;
+import com.docorbitbackend.enums.AppointmentStatus;
 import com.docorbitbackend.models.User;
 import com.docorbitbackend.repositories.UserRepository;
 import com.docorbitbackend.services.AppointmentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.security.Principal;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/appointments")
@@ -35,27 +44,119 @@ public class AppointmentController {
         User patient = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
 
+        LocalDate day;
+        LocalTime at;
+        try {
+            day = LocalDate.parse(date);
+            at = LocalTime.parse(time);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "date must be yyyy-MM-dd and time HH:mm");
+        }
+
         AppointmentResponseDto response = appointmentService.bookAppointment(
                 doctorId,
                 patient.getId(),
-                LocalDate.parse(date),
-                LocalTime.parse(time)
+                day,
+                at
         );
 
         return ResponseEntity.ok(response);
     }
 
-    // ✅ NEW: Fetch all appointments for the logged-in user
-    @GetMapping("/my")
-    public ResponseEntity<List<AppointmentResponseDto>> getMyAppointments(Principal principal) {
+    // ✅ Book a series of appointments (e.g. weekly physiotherapy) in one request
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchBookingResult>> bookBatch(
+            @RequestBody BatchBookingRequest request,
+            Principal principal
+    ) {
         String email = principal.getName();
 
         User patient = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
 
-        List<AppointmentResponseDto> appointments = appointmentService.getAppointmentsForUser(patient);
-        return ResponseEntity.ok(appointments);
+        return ResponseEntity.ok(appointmentService.bookBatch(patient.getId(), request.appointments()));
+    }
+
+    // ✅ Fetch the logged-in user's appointments.
+    // Without size/cursor the whole list is returned, as before; with either one the result is
+    // a keyset page: the body stays a plain array and the next cursor is returned in X-Next-Cursor.
+    @GetMapping("/my")
+    public ResponseEntity<List<AppointmentResponseDto>> getMyAppointments(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Principal principal
+    ) {
+        User patient = currentPatient(principal);
+
+        Set<AppointmentStatus> statuses;
+        try {
+            statuses = status != null ? EnumSet.of(AppointmentStatus.valueOf(status.toUpperCase())) : null;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown status: " + status);
+        }
+
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = from != null ? LocalDate.parse(from) : null;
+            toDate = to != null ? LocalDate.parse(to) : null;
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from/to must be yyyy-MM-dd");
+        }
+
+        if (cursor == null && size == null) {
+            return ResponseEntity.ok(appointmentService.getAllAppointmentsForUser(
+                    patient.getId(), statuses, fromDate, toDate));
+        }
+        return appointmentService.getAppointmentsForUser(
+                patient.getId(),
+                statuses,
+                fromDate,
+                toDate,
+                AppointmentCursor.fromRequest(cursor),
+                size != null ? size : AppointmentService.DEFAULT_PAGE_SIZE
+        ).toResponse();
+    }
+
+    // ✅ Upcoming active appointments, soonest first
+    @GetMapping("/my/upcoming")
+    public ResponseEntity<List<AppointmentResponseDto>> getMyUpcomingAppointments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + AppointmentService.DEFAULT_PAGE_SIZE) int size,
+            Principal principal
+    ) {
+        User patient = currentPatient(principal);
+        return appointmentService.getUpcomingForUser(patient.getId(), AppointmentCursor.fromRequest(cursor), size)
+                .toResponse();
+    }
+
+    // ✅ Past appointments, most recent first
+    @GetMapping("/my/past")
+    public ResponseEntity<List<AppointmentResponseDto>> getMyPastAppointments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + AppointmentService.DEFAULT_PAGE_SIZE) int size,
+            Principal principal
+    ) {
+        User patient = currentPatient(principal);
+        return appointmentService.getPastForUser(patient.getId(), AppointmentCursor.fromRequest(cursor), size)
+                .toResponse();
     }
+
+    // ✅ Cancelled appointments, most recent first
+    @GetMapping("/my/cancelled")
+    public ResponseEntity<List<AppointmentResponseDto>> getMyCancelledAppointments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + AppointmentService.DEFAULT_PAGE_SIZE) int size,
+            Principal principal
+    ) {
+        User patient = currentPatient(principal);
+        return appointmentService.getCancelledForUser(patient.getId(), AppointmentCursor.fromRequest(cursor), size)
+                .toResponse();
+    }
+
     // ✅ Cancel one appointment (only the patient who booked can cancel)
     @PatchMapping("/{id}/cancel")
     public ResponseEntity<AppointmentResponseDto> cancelAppointment(
@@ -63,4 +164,10 @@ public class AppointmentController {
         String email = principal.getName();
         return ResponseEntity.ok(appointmentService.cancelAppointment(id, email));
     }
+
+    private User currentPatient(Principal principal) {
+        String email = principal.getName();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+    }
 }
@@ -6,10 +6,17 @@ import com.docorbitbackend.models.PasswordResetToken;
 import com.docorbitbackend.models.User;
 import com.docorbitbackend.repositories.PasswordResetTokenRepository;
 import com.docorbitbackend.repositories.UserRepository;
+import com.docorbitbackend.security.UserDetailsCache;
 import com.docorbitbackend.services.EmailService;
+import com.docorbitbackend.services.LoginRateLimiter;
+import com.docorbitbackend.services.PasswordHashingPool;
+import com.docorbitbackend.services.RefreshTokenService;
 import com.docorbitbackend.services.UserService;
 import com.docorbitbackend.services.JwtService;
+import com.docorbitbackend.services.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
@@ -17,6 +24,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -42,6 +50,15 @@ public class AuthController {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
 
 
     @PostConstruct
@@ -75,15 +92,20 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         System.out.println("🚀 /api/auth/login called for: " + request.getUsername());
         try {
-            String token = userService.verifyUser(request.getUsername(), request.getPassword());
-            User user = userService.findUserByUsername(request.getUsername());
+            // getRemoteAddr() is the real client behind a trusted proxy (forward-headers-strategy, see DocOrbit)
+            UserService.LoginResult result = userService.login(
+                    request.getUsername(), request.getPassword(), httpRequest.getRemoteAddr());
+            String token = result.token();
+            User user = result.user();
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Login successful");
             response.put("token", token);
+            response.put("refreshToken", result.refreshToken());
+            response.put("expiresIn", jwtService.getTokenLifetimeMillis() / 1000);
             response.put("username", user.getUsername());
             response.put("email", user.getEmail());
             response.put("roles", user.getRoles());
@@ -94,6 +116,14 @@ public class AuthController {
 
             return ResponseEntity.ok(response);
 
+        } catch (LoginRateLimiter.RateLimitedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of("error", e.getMessage()));
+        } catch (PasswordHashingPool.BusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Login failed: " + e.getMessage()));
@@ -103,6 +133,22 @@ public class AuthController {
 
 
 
+    // ✅ Refresh: trades a refresh token for a new access token and a new refresh token (no password check)
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest request) {
+        try {
+            RefreshTokenService.Session session = refreshTokenService.rotate(request.getRefreshToken());
+            Map<String, Object> response = new HashMap<>();
+            response.put("token", session.accessToken());
+            response.put("refreshToken", session.refreshToken());
+            response.put("expiresIn", jwtService.getTokenLifetimeMillis() / 1000);
+            response.put("username", session.user().getUsername());
+            return ResponseEntity.ok(response);
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(Map.of("error", e.getReason()));
+        }
+    }
+
     // ✅ Profile endpoint
     @GetMapping("/profile")
     public ResponseEntity<User> getProfile() {
@@ -122,9 +168,32 @@ public class AuthController {
         return new ResponseEntity<>(user, HttpStatus.OK);
     }
 
+    // ✅ Logout: revokes the presented token server-side; ?everywhere=true revokes all of the user's tokens
     @PostMapping("/logout")
-    public ResponseEntity<String> logout() {
-        return ResponseEntity.ok("User logged out (token invalidation is client-side only)");
+    public ResponseEntity<String> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+                                         @RequestParam(defaultValue = "false") boolean everywhere,
+                                         @RequestBody(required = false) RefreshRequest body) {
+        // The refresh token (if sent) stops working whether or not the access token is still valid
+        if (body != null) {
+            refreshTokenService.revoke(body.getRefreshToken());
+        }
+
+        Claims claims = authHeader != null && authHeader.startsWith("Bearer ")
+                ? jwtService.verify(authHeader.substring(7))
+                : null;
+        if (claims == null || claims.getSubject() == null) {
+            // Nothing valid to revoke; the client just drops whatever it has
+            return ResponseEntity.ok("User logged out");
+        }
+
+        if (everywhere) {
+            tokenRevocationService.revokeAllFor(claims.getSubject());
+            userRepository.findByUsername(claims.getSubject())
+                    .ifPresent(user -> refreshTokenService.revokeAllFor(user.getId()));
+            return ResponseEntity.ok("User logged out from all sessions");
+        }
+        tokenRevocationService.revoke(claims);
+        return ResponseEntity.ok("User logged out");
     }
 
     @PostMapping("/forgot-password")
@@ -178,6 +247,11 @@ public class AuthController {
 
         // Cleanup used token
         tokenRepository.delete(resetToken);
+        userDetailsCache.evict(user.getUsername());
+        userDetailsCache.evict(user.getEmail());
+        // Sessions opened with the old password end here
+        tokenRevocationService.revokeAllFor(user.getUsername());
+        refreshTokenService.revokeAllFor(user.getId());
 
         return ResponseEntity.ok("Password reset successfully!");
     }
@@ -206,6 +280,11 @@ public class AuthController {
         private String password;
     }
 
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor
+    static class RefreshRequest {
+        private String refreshToken;
+    }
+
     @Getter @Setter @AllArgsConstructor @NoArgsConstructor
     static class LoginResponse {
         private String message;
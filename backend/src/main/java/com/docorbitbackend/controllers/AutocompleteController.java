@@ -0,0 +1,29 @@
+package com.docorbitbackend.controllers;
+
+import com.docorbitbackend.dtos.responsedtos.SuggestionDto;
+import com.docorbitbackend.services.AutocompleteIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/autocomplete")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:5173") // ✅ Allow frontend calls
+public class AutocompleteController {
+
+    private static final int MAX_SUGGESTIONS = 20;
+
+    private final AutocompleteIndex autocompleteIndex;
+
+    // ✅ Search-box suggestions (doctors, specializations, clinics), best first
+    @GetMapping
+    public ResponseEntity<List<SuggestionDto>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int k
+    ) {
+        return ResponseEntity.ok(autocompleteIndex.suggest(q, Math.min(k, MAX_SUGGESTIONS)));
+    }
+}
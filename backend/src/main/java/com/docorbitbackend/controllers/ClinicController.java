@@ -1,7 +1,11 @@
 package com.docorbitbackend.controllers;
 
+import com.docorbitbackend.dtos.requestdtos.ClinicCursor;
+import com.docorbitbackend.dtos.responsedtos.ClinicDirectoryDto;
 import com.docorbitbackend.models.Clinic;
 import com.docorbitbackend.repositories.ClinicRepository;
+import com.docorbitbackend.services.ClinicDirectoryService;
+import com.docorbitbackend.services.DoctorDetailsCache;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,9 +16,15 @@ import java.util.List;
 public class ClinicController {
 
     private final ClinicRepository clinicRepository;
+    private final DoctorDetailsCache doctorDetailsCache;
+    private final ClinicDirectoryService clinicDirectoryService;
 
-    public ClinicController(ClinicRepository clinicRepository) {
+    public ClinicController(ClinicRepository clinicRepository,
+                            DoctorDetailsCache doctorDetailsCache,
+                            ClinicDirectoryService clinicDirectoryService) {
         this.clinicRepository = clinicRepository;
+        this.doctorDetailsCache = doctorDetailsCache;
+        this.clinicDirectoryService = clinicDirectoryService;
     }
 
     // Create a new clinic
@@ -23,10 +33,16 @@ public class ClinicController {
         return ResponseEntity.ok(clinicRepository.save(clinic));
     }
 
-    // Get all clinics
+    // Clinic directory, one page at a time, with doctor count and specializations per clinic.
+    // Optional ?city= / ?state= filters; next page via the cursor from X-Next-Cursor, plus ?size=
     @GetMapping
-    public ResponseEntity<List<Clinic>> getAllClinics() {
-        return ResponseEntity.ok(clinicRepository.findAll());
+    public ResponseEntity<List<ClinicDirectoryDto>> getAllClinics(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String state,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ClinicDirectoryService.DEFAULT_PAGE_SIZE) int size
+    ) {
+        return clinicDirectoryService.getDirectoryPage(city, state, ClinicCursor.fromRequest(cursor), size).toResponse();
     }
 
     // Get clinic by ID
@@ -48,7 +64,14 @@ public class ClinicController {
                     clinic.setState(updatedClinic.getState());
                     clinic.setCountry(updatedClinic.getCountry());
                     clinic.setPhone(updatedClinic.getPhone());
-                    return ResponseEntity.ok(clinicRepository.save(clinic));
+                    if (updatedClinic.getLatitude() != null && updatedClinic.getLongitude() != null) {
+                        clinic.setLatitude(updatedClinic.getLatitude());
+                        clinic.setLongitude(updatedClinic.getLongitude());
+                    }
+                    Clinic saved = clinicRepository.save(clinic);
+                    // Cached doctor views embed the clinic
+                    doctorDetailsCache.evictClinic(saved.getId());
+                    return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -59,6 +82,7 @@ public class ClinicController {
         return clinicRepository.findById(id)
                 .map(clinic -> {
                     clinicRepository.delete(clinic);
+                    doctorDetailsCache.evictClinic(clinic.getId());
                     return ResponseEntity.noContent().<Void>build();
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -1,10 +1,37 @@
 package com.docorbitbackend.controllers;
 
+import com.docorbitbackend.dtos.requestdtos.AppointmentCursor;
+import com.docorbitbackend.dtos.requestdtos.DoctorCursor;
+import com.docorbitbackend.dtos.responsedtos.AppointmentResponseDto;
+import com.docorbitbackend.dtos.responsedtos.DoctorAvailabilityDto;
+import com.docorbitbackend.dtos.responsedtos.DoctorDetailsDto;
+import com.docorbitbackend.dtos.responsedtos.DoctorOccupancyDto;
+import com.docorbitbackend.dtos.responsedtos.DoctorSummaryDto;
+import com.docorbitbackend.dtos.responsedtos.FacetedDoctorSearchDto;
+import com.docorbitbackend.dtos.responsedtos.NearbyDoctorDto;
+import com.docorbitbackend.dtos.responsedtos.RecommendedDoctorDto;
+import com.docorbitbackend.enums.DoctorSort;
 import com.docorbitbackend.models.Doctor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.docorbitbackend.services.AppointmentService;
+import com.docorbitbackend.services.ClinicGeoIndex;
+import com.docorbitbackend.services.DoctorRecommendationService;
 import com.docorbitbackend.services.DoctorService;
+import com.docorbitbackend.services.OccupancyService;
+import com.docorbitbackend.services.SlotOccupancyService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.Principal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @RestController
@@ -13,14 +40,38 @@ import java.util.List;
 public class DoctorController {
 
     private final DoctorService doctorService;
+    private final SlotOccupancyService slotOccupancyService;
+    private final AppointmentService appointmentService;
+    private final OccupancyService occupancyService;
+    private final ClinicGeoIndex clinicGeoIndex;
+    private final DoctorRecommendationService recommendationService;
+    private final ObjectMapper objectMapper;
+
+    // Flush to the client every N rows so the first rows arrive while the query is still running
+    private static final int SCHEDULE_FLUSH_EVERY = 100;
+
+    private static final int MAX_NEARBY_RESULTS = 200;
+    private static final int MAX_RECOMMENDATIONS = 50;
 
-    public DoctorController(DoctorService doctorService) {
+    public DoctorController(DoctorService doctorService,
+                            SlotOccupancyService slotOccupancyService,
+                            AppointmentService appointmentService,
+                            OccupancyService occupancyService,
+                            ClinicGeoIndex clinicGeoIndex,
+                            DoctorRecommendationService recommendationService,
+                            ObjectMapper objectMapper) {
         this.doctorService = doctorService;
+        this.slotOccupancyService = slotOccupancyService;
+        this.appointmentService = appointmentService;
+        this.occupancyService = occupancyService;
+        this.clinicGeoIndex = clinicGeoIndex;
+        this.recommendationService = recommendationService;
+        this.objectMapper = objectMapper;
     }
 
     // 1. Get doctor by ID
     @GetMapping("/{id}")
-    public ResponseEntity<Doctor> getDoctorById(@PathVariable Long id) {
+    public ResponseEntity<DoctorDetailsDto> getDoctorById(@PathVariable Long id) {
         return ResponseEntity.ok(doctorService.getDoctorById(id));
     }
 
@@ -30,10 +81,31 @@ public class DoctorController {
         return ResponseEntity.ok(doctorService.searchDoctorsBySpecialization(specialization));
     }
 
-    // 3. Search doctors by name (partial match)
+    // 3. Search doctors by name (ranked, tolerates typos); ?q= also matches specialization and city
     @GetMapping("/search")
-    public ResponseEntity<List<Doctor>> searchDoctorsByName(@RequestParam String name) {
-        return ResponseEntity.ok(doctorService.searchDoctorsByName(name));
+    public ResponseEntity<List<Doctor>> searchDoctorsByName(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String q
+    ) {
+        if (name != null) {
+            return ResponseEntity.ok(doctorService.searchDoctorsByName(name));
+        }
+        if (q != null) {
+            return ResponseEntity.ok(doctorService.searchDoctors(q));
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide 'name' or 'q'");
+    }
+
+    // 3b. Search with facet counts (specialization, city, rating bucket) in the same response
+    @GetMapping("/search/faceted")
+    public ResponseEntity<FacetedDoctorSearchDto> searchDoctorsFaceted(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String specialization,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String rating,
+            @RequestParam(defaultValue = "" + DoctorService.DEFAULT_PAGE_SIZE) int size
+    ) {
+        return ResponseEntity.ok(doctorService.searchFaceted(q, specialization, city, rating, size));
     }
 
     // 4. Create a new doctor (linked to a clinic)
@@ -62,10 +134,166 @@ public class DoctorController {
         return ResponseEntity.ok(doctorService.getDoctorsByClinic(clinicId));
     }
 
-    // 8. Get all doctors (used by frontend’s Providers.jsx)
+    // 8. Doctor directory (used by frontend’s Providers.jsx), one page at a time.
+    // ?sort=name|rating, then either ?page= or the cursor from X-Next-Cursor, plus ?size=
     @GetMapping
-    public ResponseEntity<List<Doctor>> getAllDoctors() {
-        List<Doctor> doctors = doctorService.getAllDoctors();
-        return ResponseEntity.ok(doctors);
+    public ResponseEntity<List<DoctorSummaryDto>> getAllDoctors(
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DoctorService.DEFAULT_PAGE_SIZE) int size
+    ) {
+        DoctorSort doctorSort;
+        try {
+            doctorSort = DoctorSort.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown sort: " + sort);
+        }
+        if (page != null && cursor != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Use either 'page' or 'cursor', not both");
+        }
+
+        return doctorService.getDoctorPage(doctorSort, DoctorCursor.fromRequest(cursor, doctorSort),
+                page != null ? page : 0, size).toResponse();
+    }
+
+    // 9. Free slots for a doctor between two dates (served from the in-memory occupancy index)
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<DoctorAvailabilityDto> getAvailability(
+            @PathVariable Long id,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to
+    ) {
+        LocalDate start;
+        LocalDate end;
+        try {
+            start = from != null ? LocalDate.parse(from) : LocalDate.now();
+            end = to != null ? LocalDate.parse(to) : start.plusDays(6);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from/to must be yyyy-MM-dd");
+        }
+
+        if (end.isBefore(start) || end.isAfter(start.plusDays(SlotOccupancyService.MAX_RANGE_DAYS - 1))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Date range must be between 1 and " + SlotOccupancyService.MAX_RANGE_DAYS + " days");
+        }
+
+        return ResponseEntity.ok(DoctorAvailabilityDto.builder()
+                .doctorId(id)
+                .from(start)
+                .to(end)
+                .slotMinutes(SlotOccupancyService.SLOT_MINUTES)
+                .freeSlots(slotOccupancyService.getFreeSlots(id, start, end))
+                .build());
+    }
+
+    // 10. Stream a doctor's full schedule as NDJSON (one appointment per line)
+    @GetMapping(value = "/{id}/appointments", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamDoctorAppointments(@PathVariable Long id, Principal principal) {
+        if (principal == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Login required");
+        }
+        appointmentService.checkScheduleAccess(id, principal.getName());
+
+        StreamingResponseBody body = out -> {
+            int[] written = {0};
+            appointmentService.streamDoctorSchedule(id, appointment -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(appointment));
+                    out.write('\n');
+                    if (++written[0] == 1 || written[0] % SCHEDULE_FLUSH_EVERY == 0) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    // 11. A doctor's upcoming active appointments, keyset-paged (cursor in X-Next-Cursor)
+    @GetMapping("/{id}/appointments/upcoming")
+    public ResponseEntity<List<AppointmentResponseDto>> getUpcomingAppointments(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + AppointmentService.DEFAULT_PAGE_SIZE) int size,
+            Principal principal
+    ) {
+        if (principal == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Login required");
+        }
+        appointmentService.checkScheduleAccess(id, principal.getName());
+        return appointmentService.getUpcomingForDoctor(id, AppointmentCursor.fromRequest(cursor), size).toResponse();
+    }
+
+    // 12. Booked appointments per day for one month (calendar heatmap), e.g. ?month=2025-07
+    @GetMapping("/{id}/occupancy")
+    public ResponseEntity<DoctorOccupancyDto> getOccupancy(
+            @PathVariable Long id,
+            @RequestParam(required = false) String month
+    ) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = month != null ? YearMonth.parse(month) : YearMonth.now();
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "month must look like 2025-07");
+        }
+
+        return ResponseEntity.ok(DoctorOccupancyDto.builder()
+                .doctorId(id)
+                .month(yearMonth)
+                .slotsPerDay(slotOccupancyService.getBookableSlotsPerDay())
+                .booked(occupancyService.getMonth(id, yearMonth))
+                .build());
+    }
+
+    // 13. Doctors near a point: the k nearest, or everyone within radiusKm; optional specialization filter
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyDoctorDto>> getNearbyDoctors(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) String specialization,
+            @RequestParam(defaultValue = "10") int k
+    ) {
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lat/lng out of range");
+        }
+        if (radiusKm != null && (radiusKm <= 0 || radiusKm > ClinicGeoIndex.MAX_RADIUS_KM)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "radiusKm must be between 0 and " + ClinicGeoIndex.MAX_RADIUS_KM);
+        }
+        int limit = Math.min(Math.max(k, 1), MAX_NEARBY_RESULTS);
+        return ResponseEntity.ok(clinicGeoIndex.findDoctorsNear(lat, lng, radiusKm, specialization, limit));
+    }
+
+    // 14. Recommended doctors for a specialization: rating, earliest free slot from ?date= and, with lat/lng, distance
+    @GetMapping("/recommend")
+    public ResponseEntity<List<RecommendedDoctorDto>> recommendDoctors(
+            @RequestParam String specialization,
+            @RequestParam(required = false) String date,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        LocalDate from;
+        try {
+            from = date == null || date.isBlank() ? LocalDate.now() : LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "date must be yyyy-MM-dd");
+        }
+        if ((lat == null) != (lng == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lat and lng must be given together");
+        }
+        if (lat != null && (lat < -90 || lat > 90 || lng < -180 || lng > 180)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lat/lng out of range");
+        }
+        int top = Math.min(Math.max(limit, 1), MAX_RECOMMENDATIONS);
+        return ResponseEntity.ok(recommendationService.recommend(specialization, from, lat, lng, top));
     }
 }
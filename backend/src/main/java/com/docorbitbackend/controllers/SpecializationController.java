@@ -1,7 +1,7 @@
 package com.docorbitbackend.controllers;
 
 import com.docorbitbackend.models.Specialization;
-import com.docorbitbackend.repositories.SpecializationRepository;
+import com.docorbitbackend.services.SpecializationCatalog;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,11 +13,11 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:5173")
 public class SpecializationController {
 
-    private final SpecializationRepository specializationRepository;
+    private final SpecializationCatalog specializationCatalog;
 
+    // ✅ Served from the preloaded catalog, no database round trip
     @GetMapping
     public ResponseEntity<List<Specialization>> getAllSpecializations() {
-        List<Specialization> list = specializationRepository.findAll();
-        return ResponseEntity.ok(list);
+        return ResponseEntity.ok(specializationCatalog.getAll());
     }
 }
@@ -0,0 +1,68 @@
+package com.docorbitbackend.controllers;
+
+import com.docorbitbackend.dtos.requestdtos.WaitlistRequest;
+import com.docorbitbackend.models.User;
+import com.docorbitbackend.models.WaitlistEntry;
+import com.docorbitbackend.repositories.UserRepository;
+import com.docorbitbackend.services.WaitlistService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.Principal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/waitlist")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:5173") // ✅ Allow frontend calls
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+    private final UserRepository userRepository;
+
+    // ✅ Join the waitlist of a doctor or of a specialization
+    @PostMapping
+    public ResponseEntity<WaitlistEntry> join(@RequestBody WaitlistRequest request, Principal principal) {
+        User patient = currentPatient(principal);
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = request.from() != null ? LocalDate.parse(request.from()) : null;
+            to = request.to() != null ? LocalDate.parse(request.to()) : null;
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from/to must be yyyy-MM-dd");
+        }
+        return ResponseEntity.ok(waitlistService.join(
+                patient,
+                request.doctorId(),
+                request.specialization(),
+                from,
+                to
+        ));
+    }
+
+    // ✅ The logged-in user's waitlist entries, newest first
+    @GetMapping("/my")
+    public ResponseEntity<List<WaitlistEntry>> getMyEntries(Principal principal) {
+        User patient = currentPatient(principal);
+        return ResponseEntity.ok(waitlistService.getEntriesForPatient(patient.getId()));
+    }
+
+    // ✅ Leave the waitlist
+    @DeleteMapping("/{id}")
+    public ResponseEntity<WaitlistEntry> leave(@PathVariable Long id, Principal principal) {
+        User patient = currentPatient(principal);
+        return ResponseEntity.ok(waitlistService.leave(id, patient.getId()));
+    }
+
+    private User currentPatient(Principal principal) {
+        String email = principal.getName();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+    }
+}
@@ -0,0 +1,9 @@
+package com.docorbitbackend.dtos.requestdtos;
+
+import java.util.List;
+
+public record BatchBookingRequest(List<Item> appointments) {
+
+    public record Item(Long doctorId, String date, String time) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.docorbitbackend.dtos.requestdtos;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset cursor for the clinic directory: name and id of the last clinic returned.
+// A null name is encoded by leaving the name part out ("42"), so it can't be confused with
+// an empty name ("42|").
+public record ClinicCursor(Long id, String name) {
+
+    public String encode() {
+        String raw = id + (name == null ? "" : "|" + name);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Cursor from a request parameter: null when absent, 400 when malformed
+    public static ClinicCursor fromRequest(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // Names may contain '|', so the name is always the last part
+            String[] parts = raw.split("\\|", 2);
+            return new ClinicCursor(Long.parseLong(parts[0]), parts.length > 1 ? parts[1] : null);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.docorbitbackend.dtos.requestdtos;
+
+import com.docorbitbackend.enums.DoctorSort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset cursor for the doctor directory: the sort key and id of the last row returned.
+// A null sort key is encoded by leaving the key part out ("NAME|42"), so it can't be confused
+// with an empty name ("NAME|42|").
+public record DoctorCursor(DoctorSort sort, Long id, String name, Double rating) {
+
+    public String encode() {
+        String key = sort == DoctorSort.NAME ? name : (rating == null ? null : rating.toString());
+        String raw = sort + "|" + id + (key == null ? "" : "|" + key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static DoctorCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // Names may contain '|', so the key is always the last part
+            String[] parts = raw.split("\\|", 3);
+            DoctorSort sort = DoctorSort.valueOf(parts[0]);
+            Long id = Long.parseLong(parts[1]);
+            String key = parts.length > 2 ? parts[2] : null;
+            return sort == DoctorSort.NAME
+                    ? new DoctorCursor(sort, id, key, null)
+                    : new DoctorCursor(sort, id, null, key == null || key.isEmpty() ? null : Double.parseDouble(key));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Cursor from a request parameter: null when absent, 400 when malformed or made for another sort
+    public static DoctorCursor fromRequest(String cursor, DoctorSort sort) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            DoctorCursor decoded = decode(cursor);
+            if (decoded.sort() != sort) {
+                throw new IllegalArgumentException("Cursor was issued for sort=" + decoded.sort().name().toLowerCase());
+            }
+            return decoded;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
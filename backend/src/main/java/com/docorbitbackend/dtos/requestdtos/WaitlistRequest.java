@@ -0,0 +1,5 @@
+package com.docorbitbackend.dtos.requestdtos;
+
+// Join the waitlist of one doctor (doctorId) or of any doctor with a specialization
+public record WaitlistRequest(Long doctorId, String specialization, String from, String to) {
+}
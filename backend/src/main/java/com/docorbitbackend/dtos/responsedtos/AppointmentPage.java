@@ -0,0 +1,20 @@
+package com.docorbitbackend.dtos.responsedtos;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+// One keyset page of appointments; nextCursor is null on the last page
+public record AppointmentPage(List<AppointmentResponseDto> items, String nextCursor) {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Body stays a plain JSON array; the cursor for the next page travels in X-Next-Cursor
+    public ResponseEntity<List<AppointmentResponseDto>> toResponse() {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (nextCursor != null) {
+            ok.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return ok.body(items);
+    }
+}
@@ -1,5 +1,6 @@
 package com.docorbitbackend.dtos.responsedtos;
 
+import com.docorbitbackend.enums.AppointmentStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,6 +23,6 @@ public class AppointmentResponseDto {
     private String clinicAddress;
     private String clinicCity;
     private String patientName;
-    private String status;
+    private AppointmentStatus status;
 }
 
@@ -0,0 +1,18 @@
+package com.docorbitbackend.dtos.responsedtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBookingResult {
+    private int index;            // position of the item in the request
+    private Long doctorId;
+    private String outcome;       // BOOKED, CONFLICT, NOT_FOUND, INVALID
+    private String message;
+    private AppointmentResponseDto appointment; // set only when BOOKED
+}
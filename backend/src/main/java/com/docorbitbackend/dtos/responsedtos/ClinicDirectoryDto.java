@@ -0,0 +1,25 @@
+package com.docorbitbackend.dtos.responsedtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Clinic directory row: clinic fields plus aggregates, without loading the doctors collection
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClinicDirectoryDto {
+    private Long id;
+    private String name;
+    private String address;
+    private String city;
+    private String state;
+    private String country;
+    private String phone;
+    private long doctorCount;
+    private List<String> specializations;
+}
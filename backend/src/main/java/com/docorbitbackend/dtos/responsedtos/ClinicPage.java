@@ -0,0 +1,18 @@
+package com.docorbitbackend.dtos.responsedtos;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+// One page of the clinic directory; nextCursor is null on the last page
+public record ClinicPage(List<ClinicDirectoryDto> items, String nextCursor) {
+
+    // Plain JSON array body; the next cursor travels in X-Next-Cursor
+    public ResponseEntity<List<ClinicDirectoryDto>> toResponse() {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (nextCursor != null) {
+            ok.header(AppointmentPage.NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return ok.body(items);
+    }
+}
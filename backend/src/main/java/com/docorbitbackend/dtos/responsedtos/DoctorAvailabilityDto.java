@@ -0,0 +1,23 @@
+package com.docorbitbackend.dtos.responsedtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorAvailabilityDto {
+    private Long doctorId;
+    private LocalDate from;
+    private LocalDate to;
+    private int slotMinutes;
+    private Map<LocalDate, List<LocalTime>> freeSlots;
+}
@@ -0,0 +1,22 @@
+package com.docorbitbackend.dtos.responsedtos;
+
+import com.docorbitbackend.models.Clinic;
+import com.docorbitbackend.models.Doctor;
+
+// Immutable doctor-plus-clinic view; same JSON shape as the Doctor entity with its clinic loaded
+public record DoctorDetailsDto(Long id, String name, String specialization, String email, String phone,
+                               Double rating, ClinicView clinic) {
+
+    public record ClinicView(Long id, String name, String address, String city, String state,
+                             String country, String phone, Double latitude, Double longitude) {
+    }
+
+    public static DoctorDetailsDto from(Doctor doctor) {
+        Clinic c = doctor.getClinic();
+        ClinicView clinic = c == null ? null
+                : new ClinicView(c.getId(), c.getName(), c.getAddress(), c.getCity(), c.getState(),
+                        c.getCountry(), c.getPhone(), c.getLatitude(), c.getLongitude());
+        return new DoctorDetailsDto(doctor.getId(), doctor.getName(), doctor.getSpecialization(),
+                doctor.getEmail(), doctor.getPhone(), doctor.getRating(), clinic);
+    }
+}
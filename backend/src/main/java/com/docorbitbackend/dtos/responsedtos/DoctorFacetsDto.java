@@ -0,0 +1,19 @@
+package com.docorbitbackend.dtos.responsedtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+// Facet value → number of doctors, largest first
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorFacetsDto {
+    private Map<String, Long> specialization;
+    private Map<String, Long> city;
+    private Map<String, Long> rating;
+}
@@ -0,0 +1,22 @@
+package com.docorbitbackend.dtos.responsedtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorOccupancyDto {
+    private Long doctorId;
+    private YearMonth month;
+    // Bookable slots per day, so the UI can turn counts into a fill ratio
+    private int slotsPerDay;
+    private Map<LocalDate, Integer> booked;
+}
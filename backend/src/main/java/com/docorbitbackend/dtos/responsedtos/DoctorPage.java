@@ -0,0 +1,18 @@
+package com.docorbitbackend.dtos.responsedtos;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+// One page of the doctor directory; nextCursor is null on the last page
+public record DoctorPage(List<DoctorSummaryDto> items, String nextCursor) {
+
+    // Plain JSON array body (what Providers.jsx expects); the next cursor travels in X-Next-Cursor
+    public ResponseEntity<List<DoctorSummaryDto>> toResponse() {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (nextCursor != null) {
+            ok.header(AppointmentPage.NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return ok.body(items);
+    }
+}
@@ -0,0 +1,21 @@
+package com.docorbitbackend.dtos.responsedtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Directory row: only what the provider list renders (built by a JPQL constructor expression)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorSummaryDto {
+    private Long id;
+    private String name;
+    private String specialization;
+    private Double rating;
+    private String clinicName;
+    private String city;
+    private String country;
+}
@@ -0,0 +1,20 @@
+package com.docorbitbackend.dtos.responsedtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Search results plus facet counts for the same query, in one response
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedDoctorSearchDto {
+    private List<DoctorSummaryDto> results;
+    // Matches after the specialization/city/rating filters (results holds at most one page of them)
+    private int total;
+    private DoctorFacetsDto facets;
+}
@@ -0,0 +1,24 @@
+package com.docorbitbackend.dtos.responsedtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyDoctorDto {
+    private Long id;
+    private String name;
+    private String specialization;
+    private Double rating;
+    private Long clinicId;
+    private String clinicName;
+    private String city;
+    private String country;
+    private Double latitude;
+    private Double longitude;
+    private double distanceKm;
+}
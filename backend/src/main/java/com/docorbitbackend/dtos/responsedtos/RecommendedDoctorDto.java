@@ -0,0 +1,26 @@
+package com.docorbitbackend.dtos.responsedtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendedDoctorDto {
+    private Long id;
+    private String name;
+    private String specialization;
+    private Double rating;
+    private Long clinicId;
+    private String clinicName;
+    private String city;
+    private String country;
+    private LocalDateTime nextAvailable; // null when fully booked over the look-ahead window
+    private Double distanceKm;           // null when no location was given or the clinic isn't geocoded
+    private double score;
+}
@@ -0,0 +1,5 @@
+package com.docorbitbackend.dtos.responsedtos;
+
+// One autocomplete suggestion; type is DOCTOR, SPECIALIZATION or CLINIC
+public record SuggestionDto(String type, Long id, String label) {
+}
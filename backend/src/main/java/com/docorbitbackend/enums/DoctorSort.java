@@ -0,0 +1,7 @@
+package com.docorbitbackend.enums;
+
+// Orderings offered by the doctor directory (GET /api/doctors)
+public enum DoctorSort {
+    NAME,   // name A→Z, then id
+    RATING  // best rated first, unrated last, then newest id
+}
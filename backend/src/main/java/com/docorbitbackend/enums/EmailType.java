@@ -0,0 +1,15 @@
+package com.docorbitbackend.enums;
+
+public enum EmailType {
+    APPOINTMENT_CONFIRMATION,
+    DOCTOR_NOTIFICATION,
+    APPOINTMENT_CANCELLATION,
+    DOCTOR_CANCELLATION,
+    // One consolidated email covering several appointments from a batch booking
+    BATCH_CONFIRMATION,
+    DOCTOR_BATCH_NOTIFICATION;
+
+    public boolean isBatch() {
+        return this == BATCH_CONFIRMATION || this == DOCTOR_BATCH_NOTIFICATION;
+    }
+}
@@ -0,0 +1,8 @@
+package com.docorbitbackend.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    IN_FLIGHT, // claimed by one drain; nextAttemptAt is the end of its lease
+    SENT,
+    FAILED
+}
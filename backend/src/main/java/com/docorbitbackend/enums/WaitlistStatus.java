@@ -0,0 +1,8 @@
+package com.docorbitbackend.enums;
+
+public enum WaitlistStatus {
+    WAITING,
+    ASSIGNED,
+    CANCELLED,
+    EXPIRED
+}
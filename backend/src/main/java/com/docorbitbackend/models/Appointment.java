@@ -1,5 +1,6 @@
 package com.docorbitbackend.models;
 
+import com.docorbitbackend.enums.AppointmentStatus;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -8,13 +9,25 @@ import java.time.LocalTime;
 
 // Appointment.java
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        // "my appointments" views: one patient, a date range
+        @Index(name = "idx_appointments_patient_date", columnList = "patient_id, appointment_date"),
+        // doctor schedule views: one doctor, a date range, optionally one status
+        @Index(name = "idx_appointments_doctor_date_status", columnList = "doctor_id, appointment_date, status")
+}, uniqueConstraints = {
+        // Backstop against double-booking across instances; cancelled rows have active_slot = NULL
+        // and MySQL lets NULLs repeat, so a cancelled slot can be booked again
+        @UniqueConstraint(name = Appointment.SLOT_UNIQUE_KEY,
+                columnNames = {"doctor_id", "appointment_date", "appointment_time", "active_slot"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Appointment {
 
+    public static final String SLOT_UNIQUE_KEY = "uk_appointments_doctor_slot";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -22,7 +35,16 @@ public class Appointment {
     private LocalDate appointmentDate;
     private LocalTime appointmentTime;
 
-    private String status;
+    @Enumerated(EnumType.STRING) // same values the column already held ("PENDING", "CANCELLED", ...)
+    @Column(length = 16)
+    private AppointmentStatus status;
+
+    // TRUE while the appointment holds its slot, NULL once it's cancelled
+    private Boolean activeSlot;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
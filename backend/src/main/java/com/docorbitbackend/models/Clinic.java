@@ -1,5 +1,6 @@
 package com.docorbitbackend.models;
 
+import com.docorbitbackend.services.ClinicIndexListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
@@ -7,7 +8,12 @@ import lombok.*;
 import java.util.List;
 
 @Entity
-@Table(name = "clinics")
+@Table(name = "clinics", indexes = {
+        @Index(name = "idx_clinics_name", columnList = "name"),
+        @Index(name = "idx_clinics_city_state_name", columnList = "city, state, name"),
+        @Index(name = "idx_clinics_state_name", columnList = "state, name")
+})
+@EntityListeners(ClinicIndexListener.class)
 @Data
 @Builder
 @NoArgsConstructor
@@ -25,6 +31,10 @@ public class Clinic {
     private String country;
     private String phone;
 
+    // WGS84 coordinates; filled by ClinicGeocoder from the local gazetteer when missing
+    private Double latitude;
+    private Double longitude;
+
     // One clinic can have many doctors
     @OneToMany(mappedBy = "clinic", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonIgnore  // ✅ Prevent circular reference when serializing to JSON
@@ -1,10 +1,15 @@
 package com.docorbitbackend.models;
 
+import com.docorbitbackend.services.DoctorIndexListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "doctors")
+@Table(name = "doctors", indexes = {
+        @Index(name = "idx_doctors_name", columnList = "name"),
+        @Index(name = "idx_doctors_rating", columnList = "rating")
+})
+@EntityListeners(DoctorIndexListener.class) // ✅ keeps the in-memory search index current
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,32 @@
+package com.docorbitbackend.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Number of active appointments a doctor has on one day.
+// Maintained by OccupancyService in the same transaction as every book/cancel.
+@Entity
+@Table(name = "doctor_day_occupancy", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_occupancy_doctor_day", columnNames = {"doctor_id", "day"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorDayOccupancy {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private int booked;
+}
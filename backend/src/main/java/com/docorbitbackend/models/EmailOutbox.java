@@ -0,0 +1,56 @@
+package com.docorbitbackend.models;
+
+import com.docorbitbackend.enums.EmailType;
+import com.docorbitbackend.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Outgoing email written in the same transaction as the change that triggered it.
+// EmailOutboxService.drain() claims due PENDING rows (IN_FLIGHT) and sends them in the background.
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private EmailType type;
+
+    @Column(nullable = false)
+    private String recipientEmail;
+
+    private String recipientName;
+
+    // AppointmentResponseDto serialized as JSON, so sending never reloads the appointment
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OutboxStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    @Column(length = 500)
+    private String lastError;
+}
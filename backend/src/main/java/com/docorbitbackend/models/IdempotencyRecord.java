@@ -0,0 +1,42 @@
+package com.docorbitbackend.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Stored response of a mutating request sent with an Idempotency-Key header.
+// Durable fallback for the in-memory cache in IdempotencyService.
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_expires_at", columnList = "expires_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    // SHA-256 of (user, Idempotency-Key), hex encoded
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    // method + path + SHA-256 of query and body of the original request; a reused key with a different request is rejected
+    @Column(nullable = false, length = 500)
+    private String fingerprint;
+
+    @Column(nullable = false)
+    private int status;
+
+    private String contentType;
+
+    @Column(columnDefinition = "TEXT")
+    private String body;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -1,10 +1,12 @@
 package com.docorbitbackend.models;
 
+import com.docorbitbackend.services.SpecializationIndexListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
 @Table(name = "specializations")
+@EntityListeners(SpecializationIndexListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,28 @@
+package com.docorbitbackend.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Every token of this user issued before revokedBefore is revoked ("log out everywhere", password reset).
+// Pointless once the last such token has expired, which is expiresAt.
+@Entity
+@Table(name = "token_revocation_cutoffs", indexes = {
+        @Index(name = "idx_token_cutoffs_expires_at", columnList = "expires_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocationCutoff {
+
+    @Id
+    private String username;
+
+    @Column(name = "revoked_before", nullable = false)
+    private LocalDateTime revokedBefore;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,50 @@
+package com.docorbitbackend.models;
+
+import com.docorbitbackend.enums.WaitlistStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// A patient waiting for a slot with one doctor (doctorId) or any doctor of a specialization.
+// WAITING rows are mirrored in WaitlistService's in-memory queues.
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+        @Index(name = "idx_waitlist_status", columnList = "status"),
+        @Index(name = "idx_waitlist_patient_status", columnList = "patient_id, status")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", nullable = false)
+    @JsonIgnore
+    private User patient;
+
+    // Exactly one of doctorId / specialization is set
+    private Long doctorId;
+    private String specialization;
+
+    // Optional window of acceptable dates (inclusive)
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private WaitlistStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Appointment created for this entry once a freed slot was assigned
+    private Long appointmentId;
+}
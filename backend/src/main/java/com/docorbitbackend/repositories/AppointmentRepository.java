@@ -1,15 +1,156 @@
 package com.docorbitbackend.repositories;
 
+import com.docorbitbackend.dtos.responsedtos.AppointmentResponseDto;
+import com.docorbitbackend.enums.AppointmentStatus;
 import com.docorbitbackend.models.Appointment;
 import com.docorbitbackend.models.Doctor;
 import com.docorbitbackend.models.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
     List<Appointment> findByPatient(User patient);
     List<Appointment> findByDoctor(Doctor doctor);
+
+    // Scalar rows (doctorId, date, time) used to build the slot occupancy index without loading entities
+    @Query("SELECT a.doctor.id, a.appointmentDate, a.appointmentTime FROM Appointment a " +
+            "WHERE a.appointmentDate >= :from " +
+            "AND (a.status IS NULL OR a.status <> com.docorbitbackend.enums.AppointmentStatus.CANCELLED)")
+    List<Object[]> findActiveSlotsFrom(@Param("from") LocalDate from);
+
+    // Does the patient already hold a (not cancelled) appointment at this date and time, with any doctor?
+    // Served by idx_appointments_patient_date.
+    @Query("SELECT COUNT(a) > 0 FROM Appointment a " +
+            "WHERE a.patient.id = :patientId AND a.appointmentDate = :date AND a.appointmentTime = :time " +
+            "AND (a.status IS NULL OR a.status <> com.docorbitbackend.enums.AppointmentStatus.CANCELLED)")
+    boolean patientHasAppointmentAt(@Param("patientId") Long patientId,
+                                    @Param("date") LocalDate date,
+                                    @Param("time") LocalTime time);
+
+    // One-time backfill for rows written before active_slot existed (idempotent, run at startup).
+    // The oldest live booking of each slot gets TRUE so the unique key covers it; slots that already
+    // hold a TRUE row are left alone. Extra live bookings of one slot (double-bookings from before
+    // the key) would break the key, so they stay NULL: see countLiveWithoutActiveSlot.
+    // The derived table is materialized (GROUP BY), which lets MySQL read the table it updates.
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE appointments a JOIN (" +
+            "   SELECT MIN(n.id) AS id FROM appointments n " +
+            "   WHERE n.active_slot IS NULL AND (n.status IS NULL OR n.status <> 'CANCELLED') " +
+            "   AND NOT EXISTS (SELECT 1 FROM appointments t " +
+            "       WHERE t.doctor_id = n.doctor_id AND t.appointment_date = n.appointment_date " +
+            "       AND t.appointment_time = n.appointment_time AND t.active_slot = TRUE) " +
+            "   GROUP BY n.doctor_id, n.appointment_date, n.appointment_time) keep ON keep.id = a.id " +
+            "SET a.active_slot = TRUE", nativeQuery = true)
+    int backfillActiveSlots();
+
+    // Live bookings the unique key can't see (left over by backfillActiveSlots)
+    @Query("SELECT COUNT(a) FROM Appointment a WHERE a.activeSlot IS NULL " +
+            "AND (a.status IS NULL OR a.status <> com.docorbitbackend.enums.AppointmentStatus.CANCELLED)")
+    long countLiveWithoutActiveSlot();
+
+    // Bookings per doctor (autocomplete popularity), read once at startup
+    @Query("SELECT a.doctor.id, COUNT(a) FROM Appointment a GROUP BY a.doctor.id")
+    List<Object[]> countBookingsByDoctor();
+
+    // One joined query straight into the DTO (no lazy doctor/clinic loads per row).
+    // Keyset pagination on (date, time, id): pass the last row of the previous page as the cursor.
+    // Served by idx_appointments_patient_date.
+    @Query("SELECT new com.docorbitbackend.dtos.responsedtos.AppointmentResponseDto(" +
+            "a.id, a.appointmentDate, a.appointmentTime, d.name, d.specialization, " +
+            "c.name, c.address, c.city, p.name, a.status) " +
+            "FROM Appointment a JOIN a.doctor d JOIN a.clinic c JOIN a.patient p " +
+            "WHERE p.id = :patientId " +
+            "AND a.status IN :statuses " +
+            "AND (:fromDate IS NULL OR a.appointmentDate >= :fromDate) " +
+            "AND (:toDate IS NULL OR a.appointmentDate <= :toDate) " +
+            "AND (:afterDate IS NULL " +
+            "     OR a.appointmentDate > :afterDate " +
+            "     OR (a.appointmentDate = :afterDate AND a.appointmentTime > :afterTime) " +
+            "     OR (a.appointmentDate = :afterDate AND a.appointmentTime = :afterTime AND a.id > :afterId)) " +
+            "ORDER BY a.appointmentDate, a.appointmentTime, a.id")
+    List<AppointmentResponseDto> findPageForPatient(@Param("patientId") Long patientId,
+                                                    @Param("statuses") Collection<AppointmentStatus> statuses,
+                                                    @Param("fromDate") LocalDate fromDate,
+                                                    @Param("toDate") LocalDate toDate,
+                                                    @Param("afterDate") LocalDate afterDate,
+                                                    @Param("afterTime") LocalTime afterTime,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable pageable);
+
+    // Same as findPageForPatient but newest first (past / cancelled views); the cursor is the
+    // last (oldest) row of the previous page.
+    @Query("SELECT new com.docorbitbackend.dtos.responsedtos.AppointmentResponseDto(" +
+            "a.id, a.appointmentDate, a.appointmentTime, d.name, d.specialization, " +
+            "c.name, c.address, c.city, p.name, a.status) " +
+            "FROM Appointment a JOIN a.doctor d JOIN a.clinic c JOIN a.patient p " +
+            "WHERE p.id = :patientId " +
+            "AND a.status IN :statuses " +
+            "AND (:fromDate IS NULL OR a.appointmentDate >= :fromDate) " +
+            "AND (:toDate IS NULL OR a.appointmentDate <= :toDate) " +
+            "AND (:beforeDate IS NULL " +
+            "     OR a.appointmentDate < :beforeDate " +
+            "     OR (a.appointmentDate = :beforeDate AND a.appointmentTime < :beforeTime) " +
+            "     OR (a.appointmentDate = :beforeDate AND a.appointmentTime = :beforeTime AND a.id < :beforeId)) " +
+            "ORDER BY a.appointmentDate DESC, a.appointmentTime DESC, a.id DESC")
+    List<AppointmentResponseDto> findPageForPatientNewestFirst(@Param("patientId") Long patientId,
+                                                               @Param("statuses") Collection<AppointmentStatus> statuses,
+                                                               @Param("fromDate") LocalDate fromDate,
+                                                               @Param("toDate") LocalDate toDate,
+                                                               @Param("beforeDate") LocalDate beforeDate,
+                                                               @Param("beforeTime") LocalTime beforeTime,
+                                                               @Param("beforeId") Long beforeId,
+                                                               Pageable pageable);
+
+    // A doctor's upcoming active appointments, keyset-paged; served by idx_appointments_doctor_date_status
+    @Query("SELECT new com.docorbitbackend.dtos.responsedtos.AppointmentResponseDto(" +
+            "a.id, a.appointmentDate, a.appointmentTime, d.name, d.specialization, " +
+            "c.name, c.address, c.city, p.name, a.status) " +
+            "FROM Appointment a JOIN a.doctor d JOIN a.clinic c JOIN a.patient p " +
+            "WHERE d.id = :doctorId " +
+            "AND a.appointmentDate >= :fromDate " +
+            "AND a.status IN :statuses " +
+            "AND (:afterDate IS NULL " +
+            "     OR a.appointmentDate > :afterDate " +
+            "     OR (a.appointmentDate = :afterDate AND a.appointmentTime > :afterTime) " +
+            "     OR (a.appointmentDate = :afterDate AND a.appointmentTime = :afterTime AND a.id > :afterId)) " +
+            "ORDER BY a.appointmentDate, a.appointmentTime, a.id")
+    List<AppointmentResponseDto> findUpcomingForDoctor(@Param("doctorId") Long doctorId,
+                                                       @Param("statuses") Collection<AppointmentStatus> statuses,
+                                                       @Param("fromDate") LocalDate fromDate,
+                                                       @Param("afterDate") LocalDate afterDate,
+                                                       @Param("afterTime") LocalTime afterTime,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
+
+    // Full schedule of one doctor as a cursor-backed stream of DTOs (nothing is attached to the
+    // persistence context, so memory stays flat). Integer.MIN_VALUE tells MySQL Connector/J to
+    // stream rows one by one instead of buffering the whole result set. Must be consumed inside
+    // a transaction and closed.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.docorbitbackend.dtos.responsedtos.AppointmentResponseDto(" +
+            "a.id, a.appointmentDate, a.appointmentTime, d.name, d.specialization, " +
+            "c.name, c.address, c.city, p.name, a.status) " +
+            "FROM Appointment a JOIN a.doctor d JOIN a.clinic c JOIN a.patient p " +
+            "WHERE d.id = :doctorId " +
+            "ORDER BY a.appointmentDate, a.appointmentTime, a.id")
+    Stream<AppointmentResponseDto> streamScheduleForDoctor(@Param("doctorId") Long doctorId);
 }
@@ -2,8 +2,41 @@ package com.docorbitbackend.repositories;
 
 import com.docorbitbackend.models.Clinic;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface ClinicRepository extends JpaRepository<Clinic, Integer> {
     // You can add custom finders later if needed, e.g.:
     Clinic findByName(String name);
+
+    // Clinics still waiting for coordinates (gazetteer batch)
+    List<Clinic> findByLatitudeIsNullOrLongitudeIsNull();
+
+    // Geo index load
+    List<Clinic> findByLatitudeIsNotNullAndLongitudeIsNotNull();
+
+    // Clinic directory page: the inner query picks one page of clinics (keyset on name, id;
+    // city/state filters served by idx_clinics_city_state_name / idx_clinics_state_name),
+    // then only those clinics are joined to their doctors for the count and specialization set.
+    // Clinics without a name come first (MySQL sorts NULL first for ASC); a cursor taken on one of
+    // them (afterName = null) continues by id, then with every named clinic.
+    // Columns: id, name, address, city, state, country, phone, doctor count, specializations ('|'-separated)
+    @Query(value = "SELECT p.id, p.name, p.address, p.city, p.state, p.country, p.phone, " +
+            "COUNT(d.id), GROUP_CONCAT(DISTINCT d.specialization ORDER BY d.specialization SEPARATOR '|') " +
+            "FROM (SELECT c.id, c.name, c.address, c.city, c.state, c.country, c.phone FROM clinics c " +
+            "      WHERE (:city IS NULL OR c.city = :city) AND (:state IS NULL OR c.state = :state) " +
+            "        AND (:afterId IS NULL " +
+            "          OR (:afterName IS NULL AND (c.name IS NOT NULL OR c.id > :afterId)) " +
+            "          OR c.name > :afterName OR (c.name = :afterName AND c.id > :afterId)) " +
+            "      ORDER BY c.name, c.id LIMIT :limit) p " +
+            "LEFT JOIN doctors d ON d.clinic_id = p.id " +
+            "GROUP BY p.id, p.name, p.address, p.city, p.state, p.country, p.phone " +
+            "ORDER BY p.name, p.id", nativeQuery = true)
+    List<Object[]> findDirectoryPage(@Param("city") String city,
+                                     @Param("state") String state,
+                                     @Param("afterName") String afterName,
+                                     @Param("afterId") Long afterId,
+                                     @Param("limit") int limit);
 }
@@ -0,0 +1,34 @@
+package com.docorbitbackend.repositories;
+
+import com.docorbitbackend.models.DoctorDayOccupancy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DoctorDayOccupancyRepository extends JpaRepository<DoctorDayOccupancy, Long> {
+
+    // Single-statement increment/decrement (MySQL upsert on uk_occupancy_doctor_day),
+    // so concurrent bookings of the same day never lose an update
+    @Modifying
+    @Query(value = "INSERT INTO doctor_day_occupancy (doctor_id, day, booked) VALUES (?1, ?2, GREATEST(?3, 0)) " +
+            "ON DUPLICATE KEY UPDATE booked = GREATEST(booked + ?3, 0)", nativeQuery = true)
+    int addToDay(Long doctorId, LocalDate day, int delta);
+
+    // Served by uk_occupancy_doctor_day
+    @Query("SELECT o.day, o.booked FROM DoctorDayOccupancy o " +
+            "WHERE o.doctorId = ?1 AND o.day BETWEEN ?2 AND ?3")
+    List<Object[]> findDays(Long doctorId, LocalDate from, LocalDate to);
+
+    // One-time backfill from the appointments table when the counters are first introduced
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO doctor_day_occupancy (doctor_id, day, booked) " +
+            "SELECT a.doctor_id, a.appointment_date, COUNT(*) FROM appointments a " +
+            "WHERE a.status IS NULL OR a.status <> 'CANCELLED' " +
+            "GROUP BY a.doctor_id, a.appointment_date", nativeQuery = true)
+    int backfillFromAppointments();
+}
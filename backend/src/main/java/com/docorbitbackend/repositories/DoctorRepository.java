@@ -1,15 +1,65 @@
 package com.docorbitbackend.repositories;
 
+import com.docorbitbackend.dtos.responsedtos.DoctorSummaryDto;
 import com.docorbitbackend.models.Doctor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     List<Doctor> findBySpecializationContainingIgnoreCase(String specialization);
     List<Doctor> findByNameContainingIgnoreCase(String name);
     List<Doctor> findByClinicId(Long clinicId);
-    @Query("SELECT DISTINCT d FROM Doctor d")
-    List<Doctor> findAllDistinct();
+
+    // Doctors plus their clinic in one query (batch booking)
+    @Query("SELECT d FROM Doctor d LEFT JOIN FETCH d.clinic WHERE d.id IN :ids")
+    List<Doctor> findAllWithClinicByIdIn(@Param("ids") Collection<Long> ids);
+
+    // One doctor and its clinic in a single query (doctor details cache)
+    @Query("SELECT d FROM Doctor d LEFT JOIN FETCH d.clinic WHERE d.id = :id")
+    Optional<Doctor> findWithClinicById(@Param("id") Long id);
+
+    // Every doctor with its clinic, used to build the in-memory search index
+    @Query("SELECT d FROM Doctor d LEFT JOIN FETCH d.clinic")
+    List<Doctor> findAllWithClinic();
+
+    @Query("SELECT d.id FROM Doctor d WHERE d.clinic.id = :clinicId")
+    List<Long> findIdsByClinicId(@Param("clinicId") Long clinicId);
+
+    // Directory pages straight into the projection; keyset on (name, id), served by idx_doctors_name.
+    // Doctors without a name come first (MySQL's own order for ASC, so NULLS FIRST costs nothing);
+    // a cursor taken on one of them (afterName = null) continues by id, then with every named doctor.
+    // Without a cursor, the Pageable's offset is used instead (page/size).
+    @Query("SELECT new com.docorbitbackend.dtos.responsedtos.DoctorSummaryDto(" +
+            "d.id, d.name, d.specialization, d.rating, c.name, c.city, c.country) " +
+            "FROM Doctor d LEFT JOIN d.clinic c " +
+            "WHERE (:hasCursor = false " +
+            "   OR (:afterName IS NULL AND (d.name IS NOT NULL OR d.id > :afterId)) " +
+            "   OR d.name > :afterName OR (d.name = :afterName AND d.id > :afterId)) " +
+            "ORDER BY d.name ASC NULLS FIRST, d.id ASC")
+    Slice<DoctorSummaryDto> findSummariesByName(@Param("hasCursor") boolean hasCursor,
+                                                @Param("afterName") String afterName,
+                                                @Param("afterId") Long afterId,
+                                                Pageable pageable);
+
+    // Best rated first; MySQL sorts NULL ratings last in DESC order, the cursor condition follows that.
+    // Served by idx_doctors_rating.
+    @Query("SELECT new com.docorbitbackend.dtos.responsedtos.DoctorSummaryDto(" +
+            "d.id, d.name, d.specialization, d.rating, c.name, c.city, c.country) " +
+            "FROM Doctor d LEFT JOIN d.clinic c " +
+            "WHERE (:hasCursor = false " +
+            "   OR (:afterRating IS NULL AND d.rating IS NULL AND d.id < :afterId) " +
+            "   OR (:afterRating IS NOT NULL AND (d.rating < :afterRating " +
+            "       OR (d.rating = :afterRating AND d.id < :afterId) OR d.rating IS NULL))) " +
+            "ORDER BY d.rating DESC, d.id DESC")
+    Slice<DoctorSummaryDto> findSummariesByRating(@Param("hasCursor") boolean hasCursor,
+                                                  @Param("afterRating") Double afterRating,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
 }
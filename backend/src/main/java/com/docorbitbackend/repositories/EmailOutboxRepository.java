@@ -0,0 +1,38 @@
+package com.docorbitbackend.repositories;
+
+import com.docorbitbackend.enums.OutboxStatus;
+import com.docorbitbackend.models.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Oldest due PENDING rows, row-locked until the caller's transaction ends; rows another
+    // drain has locked are skipped rather than waited for (MySQL 8 SKIP LOCKED).
+    // Served by idx_outbox_status_next_attempt.
+    @Query(value = "SELECT id FROM email_outbox " +
+            "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockDueIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Conditional hand-over PENDING → IN_FLIGHT; the lease deadline goes in nextAttemptAt
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE EmailOutbox e SET e.status = com.docorbitbackend.enums.OutboxStatus.IN_FLIGHT, " +
+            "e.nextAttemptAt = :leaseUntil " +
+            "WHERE e.id IN :ids AND e.status = com.docorbitbackend.enums.OutboxStatus.PENDING")
+    int claim(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Claims whose lease ran out (the claiming instance died mid-batch) become PENDING again
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = com.docorbitbackend.enums.OutboxStatus.PENDING " +
+            "WHERE e.status = com.docorbitbackend.enums.OutboxStatus.IN_FLIGHT AND e.nextAttemptAt <= :now")
+    int releaseExpiredClaims(@Param("now") LocalDateTime now);
+
+    long countByStatus(OutboxStatus status);
+}
@@ -0,0 +1,22 @@
+package com.docorbitbackend.repositories;
+
+import com.docorbitbackend.models.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // jti and expiry of every revocation still in force; served by idx_revoked_tokens_expires_at
+    @Query("SELECT r.jti, r.expiresAt FROM RevokedToken r WHERE r.expiresAt > ?1")
+    List<Object[]> findActive(LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= ?1")
+    int deleteExpired(LocalDateTime now);
+}
@@ -0,0 +1,20 @@
+package com.docorbitbackend.repositories;
+
+import com.docorbitbackend.models.TokenRevocationCutoff;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TokenRevocationCutoffRepository extends JpaRepository<TokenRevocationCutoff, String> {
+
+    List<TokenRevocationCutoff> findByExpiresAtAfter(LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TokenRevocationCutoff c WHERE c.expiresAt <= ?1")
+    int deleteExpired(LocalDateTime now);
+}
@@ -2,8 +2,11 @@ package com.docorbitbackend.repositories;
 
 import com.docorbitbackend.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository // optional, since JpaRepository beans are auto-detected, but nice for clarity
@@ -15,6 +18,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Fetch user by email
     Optional<User> findByEmail(String email);
 
+    // Login: the user matching either username or email, with roles and the eager
+    // forgetPassword link in the same statement (one round trip)
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles LEFT JOIN FETCH u.forgetPassword " +
+            "WHERE u.username = :login OR u.email = :login")
+    List<User> findForLogin(@Param("login") String login);
+
     // Check if username already exists
     boolean existsByUsername(String username);
 
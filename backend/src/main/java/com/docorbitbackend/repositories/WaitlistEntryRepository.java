@@ -0,0 +1,28 @@
+package com.docorbitbackend.repositories;
+
+import com.docorbitbackend.enums.WaitlistStatus;
+import com.docorbitbackend.models.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    // Startup load of the in-memory queues (patient id only, no User rows)
+    @Query("SELECT w.id, w.patient.id, w.doctorId, w.specialization, w.fromDate, w.toDate, w.createdAt " +
+            "FROM WaitlistEntry w WHERE w.status = ?1")
+    List<Object[]> findQueueRowsByStatus(WaitlistStatus status);
+
+    List<WaitlistEntry> findByPatientIdOrderByCreatedAtDesc(Long patientId);
+
+    // Entries whose window has passed without a slot turning up
+    @Modifying
+    @Transactional
+    @Query("UPDATE WaitlistEntry w SET w.status = com.docorbitbackend.enums.WaitlistStatus.EXPIRED " +
+            "WHERE w.status = com.docorbitbackend.enums.WaitlistStatus.WAITING AND w.toDate < ?1")
+    int expireBefore(LocalDate today);
+}
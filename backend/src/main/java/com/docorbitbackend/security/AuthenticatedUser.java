@@ -0,0 +1,48 @@
+package com.docorbitbackend.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal built straight from verified JWT claims (subject, uid, roles),
+ * so authenticating a request needs no user lookup. Carries no password.
+ */
+public class AuthenticatedUser implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long id, String username, List<GrantedAuthority> authorities) {
+        this.id = id;
+        this.username = username;
+        this.authorities = List.copyOf(authorities);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser[id=" + id + ", username=" + username + ", authorities=" + authorities + "]";
+    }
+}
@@ -0,0 +1,63 @@
+package com.docorbitbackend.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Short-lived cache in front of CustomUserDetailsService, for callers that
+ * want account state from the database rather than from token claims (and
+ * for tokens issued before roles were put in them). Entries live for
+ * auth.user-cache.ttl-seconds, so a role change or removal shows up within
+ * that window; evict() drops an entry right away.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final CustomUserDetailsService userDetailsService;
+
+    @Value("${auth.user-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${auth.user-cache.max-entries:5000}")
+    private int maxEntries;
+
+    private record Cached(UserDetails userDetails, long loadedAtMillis) {
+    }
+
+    // Access-ordered LinkedHashMap = LRU; guarded by its own monitor
+    private final Map<String, Cached> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public UserDetailsCache(CustomUserDetailsService userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+
+    public UserDetails get(String usernameOrEmail) {
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            Cached cached = cache.get(usernameOrEmail);
+            if (cached != null && now - cached.loadedAtMillis() < ttlSeconds * 1000) {
+                return cached.userDetails();
+            }
+        }
+        UserDetails loaded = userDetailsService.loadUserByUsername(usernameOrEmail);
+        synchronized (cache) {
+            cache.put(usernameOrEmail, new Cached(loaded, now));
+        }
+        return loaded;
+    }
+
+    public void evict(String usernameOrEmail) {
+        synchronized (cache) {
+            cache.remove(usernameOrEmail);
+        }
+    }
+}
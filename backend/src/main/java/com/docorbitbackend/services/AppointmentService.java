@@ -1,6 +1,12 @@
 package com.docorbitbackend.services;
 
+import com.docorbitbackend.dtos.requestdtos.AppointmentCursor;
+import com.docorbitbackend.dtos.requestdtos.BatchBookingRequest;
+import com.docorbitbackend.dtos.responsedtos.AppointmentPage;
 import com.docorbitbackend.dtos.responsedtos.AppointmentResponseDto;
+import com.docorbitbackend.dtos.responsedtos.BatchBookingResult;
+import com.docorbitbackend.enums.AppointmentStatus;
+import com.docorbitbackend.enums.EmailType;
 import com.docorbitbackend.models.Appointment;
 import com.docorbitbackend.models.Clinic;
 import com.docorbitbackend.models.Doctor;
@@ -9,14 +15,40 @@ import com.docorbitbackend.repositories.AppointmentRepository;
 import com.docorbitbackend.repositories.DoctorRepository;
 import com.docorbitbackend.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 
+import static com.docorbitbackend.services.TransactionHooks.afterCommit;
+import static com.docorbitbackend.services.TransactionHooks.afterRollback;
+
 @Service
 @RequiredArgsConstructor
 public class AppointmentService {
@@ -24,7 +56,15 @@ public class AppointmentService {
     private final AppointmentRepository appointmentRepository;
     private final DoctorRepository doctorRepository;
     private final UserRepository userRepository;
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
+    private final SlotOccupancyService slotOccupancyService;
+    private final TransactionTemplate transactionTemplate;
+    private final WaitlistService waitlistService;
+    private final OccupancyService occupancyService;
+    private final AutocompleteIndex autocompleteIndex;
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long LOCK_TIMEOUT_MS = 5_000;
 
     private AppointmentResponseDto toDto(Appointment a) {
         return AppointmentResponseDto.builder()
@@ -42,8 +82,32 @@ public class AppointmentService {
     }
 
 
+    // ✅ Book under the (doctor, day) stripe lock; each attempt runs in its own transaction
     public AppointmentResponseDto bookAppointment(Long doctorId, Long patientId,
                                                   LocalDate date, LocalTime time) {
+        String notBookable = slotOccupancyService.checkBookable(date, time);
+        if (notBookable != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, notBookable);
+        }
+        Lock lock = slotOccupancyService.lockFor(doctorId, date);
+        acquire(lock);
+        try {
+            return withRetry(() -> transactionTemplate.execute(
+                    tx -> doBookAppointment(doctorId, patientId, date, time)));
+        } catch (DataIntegrityViolationException e) {
+            if (!String.valueOf(e.getMostSpecificCause().getMessage()).contains(Appointment.SLOT_UNIQUE_KEY)) {
+                throw e;
+            }
+            // Unique key hit: the slot was taken behind our back (another instance) → remember it
+            slotOccupancyService.markOccupied(doctorId, date, time);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "This time slot is already booked");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private AppointmentResponseDto doBookAppointment(Long doctorId, Long patientId,
+                                                     LocalDate date, LocalTime time) {
 
         Doctor doctor = doctorRepository.findById(doctorId)
                 .orElseThrow(() -> new RuntimeException("Doctor not found"));
@@ -55,16 +119,26 @@ public class AppointmentService {
             throw new RuntimeException("Doctor is not linked to any clinic!");
         }
 
+        // ✅ Claim the slot in the occupancy index first (O(1), no DB scan)
+        if (!slotOccupancyService.tryReserve(doctorId, date, time)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "This time slot is already booked");
+        }
+        // Give the slot back if the booking transaction doesn't commit
+        afterRollback(() -> slotOccupancyService.release(doctorId, date, time));
+
         Appointment appointment = new Appointment();
         appointment.setDoctor(doctor);
         appointment.setPatient(patient);
         appointment.setClinic(clinic);
         appointment.setAppointmentDate(date);
         appointment.setAppointmentTime(time);
-        appointment.setStatus("PENDING");
-
-        Appointment saved = appointmentRepository.save(appointment);
+        appointment.setStatus(AppointmentStatus.PENDING);
+        appointment.setActiveSlot(true);
 
+        // Flush now so a unique-key conflict surfaces here rather than at commit
+        Appointment saved = appointmentRepository.saveAndFlush(appointment);
+        occupancyService.recordBooked(doctorId, date);
+        autocompleteIndex.bookingRecorded(doctorId);
 
         AppointmentResponseDto response = AppointmentResponseDto.builder()
                 .id(saved.getId())
@@ -79,48 +153,294 @@ public class AppointmentService {
                 .status(saved.getStatus())
                 .build();
 
-        System.out.println("✅ Appointment booked successfully! Sending emails...");
+        // ✉️ Queue patient confirmation + doctor notification in the same transaction
+        emailOutboxService.enqueue(EmailType.APPOINTMENT_CONFIRMATION,
+                patient.getEmail(), patient.getName(), response);
+        emailOutboxService.enqueue(EmailType.DOCTOR_NOTIFICATION,
+                doctor.getEmail(), doctor.getName(), response);
+
+        System.out.println("✅ Appointment booked successfully! Emails queued.");
 
-        // ✉️ Send patient confirmation email
-        emailService.sendAppointmentConfirmationEmail(
-                patient.getEmail(),
-                patient.getName(),
-                response
-        );
+        return response;
 
-        // ✉️ Send doctor notification email
-        emailService.sendDoctorNotificationEmail(
-                doctor.getEmail(),
-                doctor.getName(),
-                patient.getName(),
-                response
-        );
+    }
 
-        System.out.println("📨 Emails sent to both doctor and patient.");
+    public static final int MAX_BATCH_SIZE = 50;
 
-        return response;
+    /**
+     * Books a series of appointments for one patient in a single transaction.
+     * Every item gets its own outcome; the ones that fit are inserted together and
+     * each recipient (patient, every doctor involved) gets one consolidated email.
+     */
+    public List<BatchBookingResult> bookBatch(Long patientId, List<BatchBookingRequest.Item> items) {
+        if (items == null || items.isEmpty() || items.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch must contain between 1 and " + MAX_BATCH_SIZE + " appointments");
+        }
+
+        // ✅ Parse everything up front so invalid items never take a lock
+        BatchBookingResult[] results = new BatchBookingResult[items.size()];
+        List<ParsedItem> parsed = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            BatchBookingRequest.Item item = items.get(i);
+            LocalDate date;
+            LocalTime time;
+            try {
+                date = LocalDate.parse(item.date());
+                time = LocalTime.parse(item.time());
+            } catch (RuntimeException e) {
+                results[i] = batchFailure(i, item.doctorId(), "INVALID", "Invalid date or time");
+                continue;
+            }
+            String notBookable = slotOccupancyService.checkBookable(date, time);
+            if (notBookable != null) {
+                results[i] = batchFailure(i, item.doctorId(), "INVALID", notBookable);
+                continue;
+            }
+            parsed.add(new ParsedItem(i, item.doctorId(), date, time));
+        }
+
+        List<Lock> locks = slotOccupancyService.locksFor(parsed.stream()
+                .filter(p -> p.doctorId() != null)
+                .map(p -> Map.entry(p.doctorId(), p.date()))
+                .toList());
+        List<Lock> held = new ArrayList<>(locks.size());
+        try {
+            for (Lock lock : locks) {
+                acquire(lock);
+                held.add(lock);
+            }
+            List<BatchBookingResult> booked = withRetry(() -> transactionTemplate.execute(
+                    tx -> doBookBatch(patientId, parsed)));
+            for (BatchBookingResult result : booked) {
+                results[result.getIndex()] = result;
+            }
+        } catch (DataIntegrityViolationException e) {
+            if (!String.valueOf(e.getMostSpecificCause().getMessage()).contains(Appointment.SLOT_UNIQUE_KEY)) {
+                throw e;
+            }
+            // Unique key hit from another instance; the whole batch was rolled back
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "One of the requested slots was just booked, please retry");
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+
+        return Arrays.asList(results);
+    }
 
+    private List<BatchBookingResult> doBookBatch(Long patientId, List<ParsedItem> items) {
+        User patient = userRepository.findById(patientId)
+                .orElseThrow(() -> new RuntimeException("Patient not found"));
+
+        // ✅ One query for every doctor (and clinic) in the batch
+        Set<Long> doctorIds = new HashSet<>();
+        items.forEach(item -> doctorIds.add(item.doctorId()));
+        doctorIds.remove(null);
+        Map<Long, Doctor> doctors = new HashMap<>();
+        doctorRepository.findAllWithClinicByIdIn(doctorIds).forEach(d -> doctors.put(d.getId(), d));
+
+        List<BatchBookingResult> results = new ArrayList<>(items.size());
+        List<ParsedItem> accepted = new ArrayList<>();
+        List<Appointment> toSave = new ArrayList<>();
+
+        for (ParsedItem item : items) {
+            Doctor doctor = doctors.get(item.doctorId());
+            if (doctor == null) {
+                results.add(batchFailure(item.index(), item.doctorId(), "NOT_FOUND", "Doctor not found"));
+                continue;
+            }
+            if (doctor.getClinic() == null) {
+                results.add(batchFailure(item.index(), item.doctorId(), "INVALID", "Doctor is not linked to any clinic!"));
+                continue;
+            }
+            // Also catches two items in the same batch asking for the same slot
+            if (!slotOccupancyService.tryReserve(doctor.getId(), item.date(), item.time())) {
+                results.add(batchFailure(item.index(), item.doctorId(), "CONFLICT", "This time slot is already booked"));
+                continue;
+            }
+            afterRollback(() -> slotOccupancyService.release(doctor.getId(), item.date(), item.time()));
+
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctor);
+            appointment.setPatient(patient);
+            appointment.setClinic(doctor.getClinic());
+            appointment.setAppointmentDate(item.date());
+            appointment.setAppointmentTime(item.time());
+            appointment.setStatus(AppointmentStatus.PENDING);
+            appointment.setActiveSlot(true);
+            toSave.add(appointment);
+            accepted.add(item);
+        }
+
+        // ✅ All accepted rows go out in one save + one flush
+        List<Appointment> saved = appointmentRepository.saveAll(toSave);
+        appointmentRepository.flush();
+
+        List<AppointmentResponseDto> patientDtos = new ArrayList<>();
+        Map<Long, List<AppointmentResponseDto>> byDoctor = new LinkedHashMap<>();
+        for (int i = 0; i < saved.size(); i++) {
+            Appointment appt = saved.get(i);
+            occupancyService.recordBooked(appt.getDoctor().getId(), appt.getAppointmentDate());
+            autocompleteIndex.bookingRecorded(appt.getDoctor().getId());
+            AppointmentResponseDto dto = toDto(appt);
+            patientDtos.add(dto);
+            byDoctor.computeIfAbsent(appt.getDoctor().getId(), id -> new ArrayList<>()).add(dto);
+            results.add(BatchBookingResult.builder()
+                    .index(accepted.get(i).index())
+                    .doctorId(appt.getDoctor().getId())
+                    .outcome("BOOKED")
+                    .appointment(dto)
+                    .build());
+        }
+
+        // ✉️ One email per recipient, whatever the batch size
+        enqueueConsolidated(EmailType.APPOINTMENT_CONFIRMATION, EmailType.BATCH_CONFIRMATION,
+                patient.getEmail(), patient.getName(), patientDtos);
+        byDoctor.forEach((doctorId, dtos) -> enqueueConsolidated(EmailType.DOCTOR_NOTIFICATION, EmailType.DOCTOR_BATCH_NOTIFICATION,
+                doctors.get(doctorId).getEmail(), doctors.get(doctorId).getName(), dtos));
+
+        System.out.println("✅ Batch booking: " + saved.size() + "/" + items.size() + " appointments booked. Emails queued.");
+        return results;
     }
 
-    public List<AppointmentResponseDto> getAppointmentsForUser(User patient) {
-        List<Appointment> appointments = appointmentRepository.findByPatient(patient);
+    private void enqueueConsolidated(EmailType single, EmailType batch, String email, String name,
+                                     List<AppointmentResponseDto> dtos) {
+        if (dtos.size() == 1) {
+            emailOutboxService.enqueue(single, email, name, dtos.get(0));
+        } else {
+            emailOutboxService.enqueueBatch(batch, email, name, dtos);
+        }
+    }
 
-        return appointments.stream().map(appt -> AppointmentResponseDto.builder()
-                .id(appt.getId())
-                .appointmentDate(appt.getAppointmentDate())
-                .appointmentTime(appt.getAppointmentTime())
-                .doctorName(appt.getDoctor().getName())
-                .specialization(appt.getDoctor().getSpecialization())
-                .clinicName(appt.getClinic().getName())
-                .clinicAddress(appt.getClinic().getAddress())
-                .clinicCity(appt.getClinic().getCity())
-                .patientName(patient.getName())
-                .status(appt.getStatus())
-                .build()
-        ).collect(Collectors.toList());
+    private static BatchBookingResult batchFailure(int index, Long doctorId, String outcome, String message) {
+        return BatchBookingResult.builder()
+                .index(index)
+                .doctorId(doctorId)
+                .outcome(outcome)
+                .message(message)
+                .build();
+    }
+
+    private record ParsedItem(int index, Long doctorId, LocalDate date, LocalTime time) {
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    // Statuses that still hold a slot
+    public static final Set<AppointmentStatus> ACTIVE_STATUSES =
+            EnumSet.of(AppointmentStatus.PENDING, AppointmentStatus.CONFIRMED);
+
+    @Transactional(readOnly = true)
+    public AppointmentPage getAppointmentsForUser(Long patientId, Set<AppointmentStatus> statuses,
+                                                  LocalDate from, LocalDate to,
+                                                  AppointmentCursor after, int size) {
+        return page(size, pageable -> appointmentRepository.findPageForPatient(
+                patientId, statusFilter(statuses), from, to,
+                after != null ? after.date() : null,
+                after != null ? after.time() : null,
+                after != null ? after.id() : null,
+                pageable));
+    }
+
+    // ✅ Every matching appointment in one list, for clients that don't page (same query, no LIMIT)
+    @Transactional(readOnly = true)
+    public List<AppointmentResponseDto> getAllAppointmentsForUser(Long patientId, Set<AppointmentStatus> statuses,
+                                                                  LocalDate from, LocalDate to) {
+        return appointmentRepository.findPageForPatient(
+                patientId, statusFilter(statuses), from, to, null, null, null, Pageable.unpaged());
+    }
+
+    private static Set<AppointmentStatus> statusFilter(Set<AppointmentStatus> statuses) {
+        return statuses == null || statuses.isEmpty() ? EnumSet.allOf(AppointmentStatus.class) : statuses;
+    }
+
+    // ✅ Upcoming: today onwards, still active, soonest first
+    @Transactional(readOnly = true)
+    public AppointmentPage getUpcomingForUser(Long patientId, AppointmentCursor after, int size) {
+        return getAppointmentsForUser(patientId, ACTIVE_STATUSES, LocalDate.now(), null, after, size);
+    }
+
+    // ✅ Past: before today and not cancelled, most recent first
+    @Transactional(readOnly = true)
+    public AppointmentPage getPastForUser(Long patientId, AppointmentCursor before, int size) {
+        return newestFirst(patientId, EnumSet.complementOf(EnumSet.of(AppointmentStatus.CANCELLED)),
+                null, LocalDate.now().minusDays(1), before, size);
+    }
+
+    // ✅ Cancelled: any date, most recent first
+    @Transactional(readOnly = true)
+    public AppointmentPage getCancelledForUser(Long patientId, AppointmentCursor before, int size) {
+        return newestFirst(patientId, EnumSet.of(AppointmentStatus.CANCELLED), null, null, before, size);
+    }
+
+    // ✅ Doctor's upcoming active appointments (caller must check schedule access)
+    @Transactional(readOnly = true)
+    public AppointmentPage getUpcomingForDoctor(Long doctorId, AppointmentCursor after, int size) {
+        return page(size, pageable -> appointmentRepository.findUpcomingForDoctor(
+                doctorId, ACTIVE_STATUSES, LocalDate.now(),
+                after != null ? after.date() : null,
+                after != null ? after.time() : null,
+                after != null ? after.id() : null,
+                pageable));
+    }
+
+    private AppointmentPage newestFirst(Long patientId, Set<AppointmentStatus> statuses,
+                                        LocalDate from, LocalDate to,
+                                        AppointmentCursor before, int size) {
+        return page(size, pageable -> appointmentRepository.findPageForPatientNewestFirst(
+                patientId, statuses, from, to,
+                before != null ? before.date() : null,
+                before != null ? before.time() : null,
+                before != null ? before.id() : null,
+                pageable));
+    }
+
+    private static AppointmentPage page(int size, Function<Pageable, List<AppointmentResponseDto>> query) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        // Fetch one extra row to know whether another page exists
+        List<AppointmentResponseDto> rows = query.apply(PageRequest.of(0, pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new AppointmentPage(rows, null);
+        }
+
+        List<AppointmentResponseDto> items = rows.subList(0, pageSize);
+        AppointmentResponseDto last = items.get(pageSize - 1);
+        String nextCursor = new AppointmentCursor(
+                last.getAppointmentDate(), last.getAppointmentTime(), last.getId()).encode();
+        return new AppointmentPage(items, nextCursor);
+    }
+
+    // Only the doctor themselves may read their schedule (it contains patient names)
+    public void checkScheduleAccess(Long doctorId, String principalName) {
+        Doctor doctor = doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Doctor not found"));
+        User user = userRepository.findByUsername(principalName)
+                .or(() -> userRepository.findByEmail(principalName))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+
+        if (doctor.getEmail() == null || !doctor.getEmail().equalsIgnoreCase(user.getEmail())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You cannot view this doctor's schedule");
+        }
     }
 
+    // Pushes a doctor's whole schedule to the sink row by row while the DB cursor is open
+    @Transactional(readOnly = true)
+    public void streamDoctorSchedule(Long doctorId, Consumer<AppointmentResponseDto> sink) {
+        try (Stream<AppointmentResponseDto> rows = appointmentRepository.streamScheduleForDoctor(doctorId)) {
+            rows.forEach(sink);
+        }
+    }
+
+    // Retried on optimistic-lock conflicts (e.g. a concurrent cancel of the same row)
     public AppointmentResponseDto cancelAppointment(Long appointmentId, String email) {
+        return withRetry(() -> transactionTemplate.execute(tx -> doCancelAppointment(appointmentId, email)));
+    }
+
+    private AppointmentResponseDto doCancelAppointment(Long appointmentId, String email) {
         User patient = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found: " + email));
 
@@ -132,9 +452,32 @@ public class AppointmentService {
             throw new RuntimeException("You cannot cancel this appointment");
         }
 
+        boolean wasActive = appt.getStatus() != AppointmentStatus.CANCELLED;
+
         // ✅ Update status and persist
-        appt.setStatus("CANCELLED");
-        Appointment saved = appointmentRepository.save(appt); // <--- crucial line
+        appt.setStatus(AppointmentStatus.CANCELLED);
+        appt.setActiveSlot(null);
+        // Flushed right away: a waitlist assignment below re-inserts the same slot key
+        Appointment saved = appointmentRepository.saveAndFlush(appt); // <--- crucial line
+
+        if (wasActive) {
+            // ✅ Hand the slot to the first waiting patient in this same transaction;
+            // the slot then stays occupied, otherwise it's freed once we commit
+            Optional<Appointment> reassigned = waitlistService.assignFreedSlot(saved);
+            if (reassigned.isPresent()) {
+                AppointmentResponseDto assignedDto = toDto(reassigned.get());
+                User waiter = reassigned.get().getPatient();
+                emailOutboxService.enqueue(EmailType.APPOINTMENT_CONFIRMATION,
+                        waiter.getEmail(), waiter.getName(), assignedDto);
+                emailOutboxService.enqueue(EmailType.DOCTOR_NOTIFICATION,
+                        saved.getDoctor().getEmail(), saved.getDoctor().getName(), assignedDto);
+            } else {
+                Long doctorId = saved.getDoctor().getId();
+                occupancyService.recordCancelled(doctorId, saved.getAppointmentDate());
+                afterCommit(() -> slotOccupancyService.release(doctorId,
+                        saved.getAppointmentDate(), saved.getAppointmentTime()));
+            }
+        }
 
         // ✅ Convert to DTO
         AppointmentResponseDto dto = AppointmentResponseDto.builder()
@@ -150,22 +493,45 @@ public class AppointmentService {
                 .status(saved.getStatus())
                 .build();
 
-        // ✅ Send emails
-        emailService.sendAppointmentCancellationEmail(
-                patient.getEmail(),
-                patient.getName(),
-                dto
-        );
-        emailService.sendDoctorCancellationEmail(
-                saved.getDoctor().getEmail(),
-                saved.getDoctor().getName(),
-                patient.getName(),
-                dto
-        );
+        // ✅ Queue emails
+        emailOutboxService.enqueue(EmailType.APPOINTMENT_CANCELLATION,
+                patient.getEmail(), patient.getName(), dto);
+        emailOutboxService.enqueue(EmailType.DOCTOR_CANCELLATION,
+                saved.getDoctor().getEmail(), saved.getDoctor().getName(), dto);
 
         System.out.println("✅ Appointment " + appointmentId + " cancelled and saved.");
 
         return dto;
     }
 
+    private static void acquire(Lock lock) {
+        try {
+            if (!lock.tryLock(LOCK_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Booking is busy, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Booking interrupted");
+        }
+    }
+
+    // Retries deadlocks, lock timeouts and optimistic-version conflicts with a short jittered backoff
+    private static <T> T withRetry(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (TransientDataAccessException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "Appointment was modified concurrently, please retry");
+                }
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(10, 30) * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
 }
@@ -0,0 +1,312 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.dtos.responsedtos.SuggestionDto;
+import com.docorbitbackend.models.Clinic;
+import com.docorbitbackend.models.Doctor;
+import com.docorbitbackend.models.Specialization;
+import com.docorbitbackend.repositories.AppointmentRepository;
+import com.docorbitbackend.repositories.ClinicRepository;
+import com.docorbitbackend.repositories.DoctorRepository;
+import com.docorbitbackend.repositories.SpecializationRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.docorbitbackend.services.TransactionHooks.afterCommit;
+
+/**
+ * Autocomplete over doctor names, specialization names and clinic names.
+ * Backed by a compressed (radix) trie; every node knows the best score in its
+ * subtree, so a query walks to the prefix node and then expands nodes best
+ * first, stopping as soon as k suggestions are certain. Each word of a name is
+ * a key of its own ("smi" finds "John Smith"). Entities are re-inserted one by
+ * one when they change (entity listeners) or when a doctor gets a booking.
+ */
+@Service
+public class AutocompleteIndex {
+
+    public enum Type { DOCTOR, SPECIALIZATION, CLINIC }
+
+    // Keeps specializations above individual doctors for the same prefix, clinics just below the best doctors
+    private static final double SPECIALIZATION_BASE = 1.2;
+    private static final double CLINIC_BASE = 0.5;
+    private static final double BOOKINGS_FOR_FULL_POPULARITY = 1000;
+
+    private final DoctorRepository doctorRepository;
+    private final ClinicRepository clinicRepository;
+    private final SpecializationRepository specializationRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+
+    // What is currently inserted for each entity, so it can be taken out again
+    private final Map<EntityKey, Registered> registered = new HashMap<>();
+    private final Map<Long, Long> bookingsByDoctor = new ConcurrentHashMap<>();
+    private final Map<Long, Double> ratingByDoctor = new ConcurrentHashMap<>();
+
+    public AutocompleteIndex(DoctorRepository doctorRepository,
+                             ClinicRepository clinicRepository,
+                             SpecializationRepository specializationRepository,
+                             AppointmentRepository appointmentRepository) {
+        this.doctorRepository = doctorRepository;
+        this.clinicRepository = clinicRepository;
+        this.specializationRepository = specializationRepository;
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    private record EntityKey(Type type, long id) {
+    }
+
+    private record Entry(Type type, long id, String label, double score) {
+        EntityKey entity() {
+            return new EntityKey(type, id);
+        }
+    }
+
+    private record Registered(Entry entry, Set<String> keys) {
+    }
+
+    private static final class Node {
+        String edge;
+        final TreeMap<Character, Node> children = new TreeMap<>();
+        final List<Entry> entries = new ArrayList<>(1);
+        double maxScore = Double.NEGATIVE_INFINITY;
+
+        Node(String edge) {
+            this.edge = edge;
+        }
+
+        void recomputeMax() {
+            double max = Double.NEGATIVE_INFINITY;
+            for (Entry entry : entries) max = Math.max(max, entry.score());
+            for (Node child : children.values()) max = Math.max(max, child.maxScore);
+            maxScore = max;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        for (Object[] row : appointmentRepository.countBookingsByDoctor()) {
+            bookingsByDoctor.put((Long) row[0], (Long) row[1]);
+        }
+        List<Doctor> doctors = doctorRepository.findAll();
+        List<Clinic> clinics = clinicRepository.findAll();
+        List<Specialization> specializations = specializationRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            doctors.forEach(d -> putDoctor(d.getId(), d.getName(), d.getRating()));
+            clinics.forEach(c -> put(new Entry(Type.CLINIC, c.getId(), c.getName(), CLINIC_BASE)));
+            specializations.forEach(s -> put(new Entry(Type.SPECIALIZATION, s.getId(), s.getName(), SPECIALIZATION_BASE)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("🔤 Autocomplete trie built: " + registered.size() + " entries");
+    }
+
+    // ✅ Entity listener hooks; applied once the change is committed
+    public void doctorSaved(Doctor doctor) {
+        Long id = doctor.getId();
+        String name = doctor.getName();
+        Double rating = doctor.getRating();
+        afterCommit(() -> write(() -> putDoctor(id, name, rating)));
+    }
+
+    public void clinicSaved(Clinic clinic) {
+        Entry entry = new Entry(Type.CLINIC, clinic.getId(), clinic.getName(), CLINIC_BASE);
+        afterCommit(() -> write(() -> put(entry)));
+    }
+
+    public void specializationSaved(Specialization specialization) {
+        Entry entry = new Entry(Type.SPECIALIZATION, specialization.getId(), specialization.getName(), SPECIALIZATION_BASE);
+        afterCommit(() -> write(() -> put(entry)));
+    }
+
+    public void removed(Type type, Long id) {
+        EntityKey key = new EntityKey(type, id);
+        afterCommit(() -> write(() -> remove(key)));
+    }
+
+    // A committed booking makes the doctor a little more popular
+    public void bookingRecorded(Long doctorId) {
+        afterCommit(() -> {
+            bookingsByDoctor.merge(doctorId, 1L, Long::sum);
+            write(() -> {
+                Registered current = registered.get(new EntityKey(Type.DOCTOR, doctorId));
+                if (current != null) {
+                    putDoctor(doctorId, current.entry().label(), ratingByDoctor.get(doctorId));
+                }
+            });
+        });
+    }
+
+    public List<SuggestionDto> suggest(String query, int k) {
+        String prefix = DoctorSearchIndex.normalize(query);
+        if (prefix.isEmpty() || k <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            Node start = descend(prefix);
+            if (start == null) return List.of();
+
+            // Best-first over subtrees: once k distinct entries are collected and the next
+            // node's best possible score can't beat the k-th, nothing further can change the answer
+            PriorityQueue<Node> frontier = new PriorityQueue<>(Comparator.comparingDouble((Node n) -> -n.maxScore));
+            PriorityQueue<Entry> best = new PriorityQueue<>(Comparator.comparingDouble(Entry::score));
+            Set<EntityKey> seen = new HashSet<>();
+            frontier.add(start);
+
+            while (!frontier.isEmpty()) {
+                Node node = frontier.poll();
+                if (best.size() >= k && node.maxScore <= best.peek().score()) break;
+                for (Entry entry : node.entries) {
+                    if (!seen.add(entry.entity())) continue;
+                    best.add(entry);
+                    if (best.size() > k) best.poll();
+                }
+                frontier.addAll(node.children.values());
+            }
+
+            List<Entry> ordered = new ArrayList<>(best);
+            ordered.sort(Comparator.comparingDouble(Entry::score).reversed().thenComparing(Entry::label));
+            List<SuggestionDto> result = new ArrayList<>(ordered.size());
+            for (Entry entry : ordered) {
+                result.add(new SuggestionDto(entry.type().name(), entry.id(), entry.label()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putDoctor(Long id, String name, Double rating) {
+        if (rating != null) ratingByDoctor.put(id, rating);
+        else ratingByDoctor.remove(id);
+        put(new Entry(Type.DOCTOR, id, name, doctorScore(rating, bookingsByDoctor.getOrDefault(id, 0L))));
+    }
+
+    // Rating and booking popularity, each 0..1, weighted 60/40
+    static double doctorScore(Double rating, long bookings) {
+        double ratingPart = (rating != null ? Math.min(rating, 5.0) : 3.0) / 5.0;
+        double popularityPart = Math.min(1.0, Math.log1p(bookings) / Math.log1p(BOOKINGS_FOR_FULL_POPULARITY));
+        return 0.6 * ratingPart + 0.4 * popularityPart;
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void put(Entry entry) {
+        remove(entry.entity());
+        Set<String> keys = keysFor(entry.label());
+        if (keys.isEmpty()) return;
+        for (String key : keys) {
+            insert(root, key, entry);
+        }
+        registered.put(entry.entity(), new Registered(entry, keys));
+    }
+
+    private void remove(EntityKey entity) {
+        Registered previous = registered.remove(entity);
+        if (previous == null) return;
+        for (String key : previous.keys()) {
+            delete(root, key, previous.entry());
+        }
+    }
+
+    // The full normalized label plus every suffix that starts at a word boundary
+    private static Set<String> keysFor(String label) {
+        String normalized = DoctorSearchIndex.normalize(label);
+        Set<String> keys = new LinkedHashSet<>();
+        if (normalized.isEmpty()) return keys;
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+
+    private static void insert(Node node, String rest, Entry entry) {
+        if (rest.isEmpty()) {
+            node.entries.add(entry);
+            node.maxScore = Math.max(node.maxScore, entry.score());
+            return;
+        }
+        Node child = node.children.get(rest.charAt(0));
+        if (child == null) {
+            Node leaf = new Node(rest);
+            node.children.put(rest.charAt(0), leaf);
+            insert(leaf, "", entry);
+        } else {
+            int common = commonPrefix(child.edge, rest);
+            if (common < child.edge.length()) {
+                // Split the edge: node → middle(common part) → child(remainder)
+                Node middle = new Node(child.edge.substring(0, common));
+                child.edge = child.edge.substring(common);
+                middle.children.put(child.edge.charAt(0), child);
+                middle.maxScore = child.maxScore;
+                node.children.put(middle.edge.charAt(0), middle);
+                child = middle;
+            }
+            insert(child, rest.substring(common), entry);
+        }
+        node.maxScore = Math.max(node.maxScore, entry.score());
+    }
+
+    private static void delete(Node node, String rest, Entry entry) {
+        if (rest.isEmpty()) {
+            node.entries.remove(entry);
+        } else {
+            Node child = node.children.get(rest.charAt(0));
+            if (child == null || !rest.startsWith(child.edge)) return;
+            delete(child, rest.substring(child.edge.length()), entry);
+            if (child.entries.isEmpty() && child.children.isEmpty()) {
+                node.children.remove(rest.charAt(0));
+            }
+        }
+        node.recomputeMax();
+    }
+
+    // Node whose subtree holds every key starting with prefix (the prefix may end mid-edge)
+    private Node descend(String prefix) {
+        Node node = root;
+        String rest = prefix;
+        while (!rest.isEmpty()) {
+            Node child = node.children.get(rest.charAt(0));
+            if (child == null) return null;
+            int common = commonPrefix(child.edge, rest);
+            if (common == rest.length()) return child;
+            if (common < child.edge.length()) return null;
+            rest = rest.substring(common);
+            node = child;
+        }
+        return node;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) i++;
+        return i;
+    }
+}
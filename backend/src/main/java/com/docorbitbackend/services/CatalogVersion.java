@@ -0,0 +1,34 @@
+package com.docorbitbackend.services;
+
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.docorbitbackend.services.TransactionHooks.afterCommit;
+
+/**
+ * Version of the public catalog (doctors, clinics, specializations).
+ * Bumped by the entity listeners on every write to those tables, so a strong
+ * ETag can be derived without looking at the data. The boot id keeps tags from
+ * an earlier run (whose counter restarted at 0) from matching by accident.
+ */
+@Service
+public class CatalogVersion {
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    public String etag() {
+        return "\"c" + bootId + "-" + version.get() + "\"";
+    }
+
+    /**
+     * Bumped right away (responses built while the write is in flight get a tag
+     * that won't survive) and again after commit, after the in-memory indexes
+     * registered before us have caught up.
+     */
+    public void changed() {
+        version.incrementAndGet();
+        afterCommit(version::incrementAndGet);
+    }
+}
@@ -0,0 +1,67 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.dtos.requestdtos.ClinicCursor;
+import com.docorbitbackend.dtos.responsedtos.ClinicDirectoryDto;
+import com.docorbitbackend.dtos.responsedtos.ClinicPage;
+import com.docorbitbackend.repositories.ClinicRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Paged clinic directory. Each page is one aggregate query (clinic fields,
+ * doctor count, distinct specializations), so the lazy Clinic.doctors
+ * collection is never initialized.
+ */
+@Service
+public class ClinicDirectoryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final ClinicRepository clinicRepository;
+
+    public ClinicDirectoryService(ClinicRepository clinicRepository) {
+        this.clinicRepository = clinicRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public ClinicPage getDirectoryPage(String city, String state, ClinicCursor after, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        // One extra row tells whether another page follows
+        List<Object[]> rows = clinicRepository.findDirectoryPage(blankToNull(city), blankToNull(state),
+                after != null ? after.name() : null, after != null ? after.id() : null, pageSize + 1);
+
+        List<ClinicDirectoryDto> items = new ArrayList<>(Math.min(rows.size(), pageSize));
+        for (int i = 0; i < rows.size() && i < pageSize; i++) {
+            items.add(toDto(rows.get(i)));
+        }
+        if (rows.size() <= pageSize || items.isEmpty()) {
+            return new ClinicPage(items, null);
+        }
+        ClinicDirectoryDto last = items.get(items.size() - 1);
+        return new ClinicPage(items, new ClinicCursor(last.getId(), last.getName()).encode());
+    }
+
+    private static ClinicDirectoryDto toDto(Object[] row) {
+        String specializations = (String) row[8];
+        return ClinicDirectoryDto.builder()
+                .id(((Number) row[0]).longValue())
+                .name((String) row[1])
+                .address((String) row[2])
+                .city((String) row[3])
+                .state((String) row[4])
+                .country((String) row[5])
+                .phone((String) row[6])
+                .doctorCount(((Number) row[7]).longValue())
+                .specializations(specializations == null ? List.of() : Arrays.asList(specializations.split("\\|")))
+                .build();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
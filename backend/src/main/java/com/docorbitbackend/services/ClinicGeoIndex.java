@@ -0,0 +1,250 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.dtos.responsedtos.NearbyDoctorDto;
+import com.docorbitbackend.models.Clinic;
+import com.docorbitbackend.models.Doctor;
+import com.docorbitbackend.repositories.ClinicRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.docorbitbackend.services.TransactionHooks.afterCommit;
+
+/**
+ * In-memory uniform grid over clinic coordinates.
+ * Clinics are bucketed into lat/lon cells; a query walks rings of cells
+ * outwards from the caller's cell (ring r = the cells at Chebyshev distance r,
+ * longitude wrapping) and stops as soon as no further cell can hold anything
+ * closer than what it already has (k-nearest) or anything inside the radius.
+ * Nothing beyond MAX_RADIUS_KM is ever looked at, so a query touches at most the
+ * cells of a band that wide. Doctors per clinic come from DoctorSearchIndex, so
+ * nearby queries never touch the database.
+ */
+@Service
+public class ClinicGeoIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    // Search horizon for both query kinds; a larger radiusKm is rejected by the controller
+    public static final double MAX_RADIUS_KM = 500;
+
+    private final ClinicRepository clinicRepository;
+    private final DoctorSearchIndex doctorSearchIndex;
+
+    // ~28 km cells at the equator; small enough that a ring holds few clinics in dense cities
+    @Value("${geo.cell-degrees:0.25}")
+    private double cellDegrees;
+
+    private int latCells;
+    private int lonCells;
+
+    private final Map<Long, ClinicPoint[]> cells = new ConcurrentHashMap<>();
+    private final Map<Long, ClinicPoint> clinics = new ConcurrentHashMap<>();
+
+    public ClinicGeoIndex(ClinicRepository clinicRepository, DoctorSearchIndex doctorSearchIndex) {
+        this.clinicRepository = clinicRepository;
+        this.doctorSearchIndex = doctorSearchIndex;
+    }
+
+    record ClinicPoint(long clinicId, double latitude, double longitude, String name, String city, String country) {
+    }
+
+    private record Hit(ClinicPoint clinic, double distanceKm) {
+    }
+
+    @PostConstruct
+    public void init() {
+        latCells = (int) Math.ceil(180.0 / cellDegrees);
+        lonCells = (int) Math.ceil(360.0 / cellDegrees);
+        List<Clinic> located = clinicRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull();
+        located.forEach(this::put);
+        System.out.println("🗺️ Geo index built for " + clinics.size() + " clinics");
+    }
+
+    // ✅ Called by ClinicIndexListener; applied once the change is committed
+    public void clinicSaved(Clinic clinic) {
+        Long id = clinic.getId();
+        ClinicPoint point = clinic.getLatitude() == null || clinic.getLongitude() == null ? null
+                : new ClinicPoint(id, clinic.getLatitude(), clinic.getLongitude(),
+                        clinic.getName(), clinic.getCity(), clinic.getCountry());
+        afterCommit(() -> {
+            if (point == null) remove(id);
+            else put(point);
+        });
+    }
+
+    public void clinicRemoved(Long clinicId) {
+        afterCommit(() -> remove(clinicId));
+    }
+
+    /**
+     * Doctors nearest to (lat, lon), optionally limited to one specialization.
+     * With radiusKm set, every match inside the radius (up to limit) is returned;
+     * otherwise the limit nearest ones within MAX_RADIUS_KM. Sorted by distance, then rating.
+     */
+    public List<NearbyDoctorDto> findDoctorsNear(double lat, double lon, Double radiusKm,
+                                                 String specialization, int limit) {
+        String wanted = specialization == null || specialization.isBlank() ? null
+                : DoctorSearchIndex.normalize(specialization);
+        double reachKm = radiusKm != null ? Math.min(radiusKm, MAX_RADIUS_KM) : MAX_RADIUS_KM;
+
+        int originLat = latIndex(lat);
+        int originLon = lonIndex(lon);
+        // Rows further than this many cells north or south lie wholly beyond reachKm
+        int latReach = (int) Math.ceil(reachKm / (cellDegrees * KM_PER_DEGREE)) + 1;
+        // Past both limits a ring holds no cell that an earlier ring didn't already cover
+        int maxRing = Math.max(latReach, lonCells / 2);
+
+        List<NearbyDoctorDto> found = new ArrayList<>();
+        int totalClinics = clinics.size();
+        int seenClinics = 0;
+
+        for (int ring = 0; ring <= maxRing && seenClinics < totalClinics; ring++) {
+            // Anything in this ring or beyond is at least this far away
+            double bound = ringLowerBoundKm(lat, ring, latReach);
+            if (bound > reachKm) break;
+            if (radiusKm == null && found.size() >= limit && kthDistance(found, limit) <= bound) break;
+
+            List<Hit> hits = ringHits(lat, lon, originLat, originLon, ring, latReach);
+            seenClinics += hits.size();
+            for (Hit hit : hits) {
+                if (hit.distanceKm() > reachKm) continue;
+                for (Doctor doctor : doctorSearchIndex.doctorsAtClinic(hit.clinic().clinicId())) {
+                    if (wanted == null || wanted.equals(DoctorSearchIndex.normalize(doctor.getSpecialization()))) {
+                        found.add(toDto(doctor, hit));
+                    }
+                }
+            }
+        }
+
+        found.sort(Comparator.comparingDouble(NearbyDoctorDto::getDistanceKm)
+                .thenComparing(d -> d.getRating() == null ? 0.0 : -d.getRating()));
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    /*
+     * Ring r is exactly the cells at Chebyshev distance r, with longitude distance taken
+     * around the wrap (at most lonCells / 2): the rows r cells north and south, across
+     * every longitude offset up to r, plus the columns r cells east and west of the rows
+     * in between. Each cell belongs to one ring, so no visited set is needed.
+     */
+    private List<Hit> ringHits(double lat, double lon, int originLat, int originLon, int ring, int latReach) {
+        List<Hit> hits = new ArrayList<>();
+        // Longitude offsets of the full rows; once the ring is wider than the world, every column once
+        int lonHi = Math.min(ring, lonCells / 2);
+        int lonLo = Math.max(-lonHi, lonHi - lonCells + 1);
+        // Side columns exist only while ±ring are still new longitude distances (one column when they meet)
+        boolean sideColumns = ring > 0 && 2 * ring <= lonCells;
+        int sideStep = 2 * ring == lonCells ? Integer.MAX_VALUE : 2 * ring;
+
+        for (int dLat = -Math.min(ring, latReach); dLat <= Math.min(ring, latReach); dLat++) {
+            int latIdx = originLat + dLat;
+            if (latIdx < 0 || latIdx >= latCells) continue;
+            if (Math.abs(dLat) == ring) {
+                for (int dLon = lonLo; dLon <= lonHi; dLon++) {
+                    addCell(hits, lat, lon, latIdx, originLon + dLon);
+                }
+            } else if (sideColumns) {
+                for (long dLon = -ring; dLon <= ring; dLon += sideStep) {
+                    addCell(hits, lat, lon, latIdx, originLon + (int) dLon);
+                }
+            }
+        }
+        return hits;
+    }
+
+    private void addCell(List<Hit> hits, double lat, double lon, int latIdx, int lonIdx) {
+        ClinicPoint[] points = cells.get(cellKey(latIdx, Math.floorMod(lonIdx, lonCells)));
+        if (points == null) return;
+        for (ClinicPoint point : points) {
+            hits.add(new Hit(point, distanceKm(lat, lon, point.latitude(), point.longitude())));
+        }
+    }
+
+    private double ringLowerBoundKm(double lat, int ring, int latReach) {
+        if (ring <= 1) return 0.0;
+        // Cells one ring in are (ring - 1) whole cells away; longitude cells shrink towards the poles,
+        // so take the narrowest row the walk still visits
+        double steps = (ring - 1) * cellDegrees;
+        double widestLat = Math.min(89.999, Math.abs(lat) + (Math.min(ring, latReach) + 1) * cellDegrees);
+        return steps * KM_PER_DEGREE * Math.cos(Math.toRadians(widestLat));
+    }
+
+    private static double kthDistance(List<NearbyDoctorDto> found, int k) {
+        return found.stream().mapToDouble(NearbyDoctorDto::getDistanceKm).sorted().skip(k - 1).findFirst().orElse(Double.MAX_VALUE);
+    }
+
+    private static NearbyDoctorDto toDto(Doctor doctor, Hit hit) {
+        ClinicPoint clinic = hit.clinic();
+        return NearbyDoctorDto.builder()
+                .id(doctor.getId())
+                .name(doctor.getName())
+                .specialization(doctor.getSpecialization())
+                .rating(doctor.getRating())
+                .clinicId(clinic.clinicId())
+                .clinicName(clinic.name())
+                .city(clinic.city())
+                .country(clinic.country())
+                .latitude(clinic.latitude())
+                .longitude(clinic.longitude())
+                .distanceKm(Math.round(hit.distanceKm() * 100.0) / 100.0)
+                .build();
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private void put(Clinic clinic) {
+        put(new ClinicPoint(clinic.getId(), clinic.getLatitude(), clinic.getLongitude(),
+                clinic.getName(), clinic.getCity(), clinic.getCountry()));
+    }
+
+    // Cells hold small immutable arrays, replaced on write, so readers never need a lock
+    private synchronized void put(ClinicPoint point) {
+        remove(point.clinicId());
+        clinics.put(point.clinicId(), point);
+        cells.merge(cellKey(latIndex(point.latitude()), lonIndex(point.longitude())), new ClinicPoint[]{point},
+                (existing, added) -> {
+                    ClinicPoint[] grown = Arrays.copyOf(existing, existing.length + 1);
+                    grown[existing.length] = added[0];
+                    return grown;
+                });
+    }
+
+    private synchronized void remove(Long clinicId) {
+        ClinicPoint previous = clinics.remove(clinicId);
+        if (previous == null) return;
+        cells.computeIfPresent(cellKey(latIndex(previous.latitude()), lonIndex(previous.longitude())),
+                (key, existing) -> {
+                    ClinicPoint[] kept = Arrays.stream(existing)
+                            .filter(p -> p.clinicId() != clinicId)
+                            .toArray(ClinicPoint[]::new);
+                    return kept.length == 0 ? null : kept;
+                });
+    }
+
+    private int latIndex(double lat) {
+        return Math.min(latCells - 1, Math.max(0, (int) Math.floor((lat + 90.0) / cellDegrees)));
+    }
+
+    private int lonIndex(double lon) {
+        return Math.floorMod((int) Math.floor((lon + 180.0) / cellDegrees), lonCells);
+    }
+
+    private static long cellKey(int latIdx, int lonIdx) {
+        return ((long) latIdx << 32) | (lonIdx & 0xffffffffL);
+    }
+}
@@ -0,0 +1,105 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.models.Clinic;
+import com.docorbitbackend.repositories.ClinicRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Offline batch geocoder for clinics.
+ * Reads a local gazetteer CSV (city,state,country,latitude,longitude; header
+ * line optional) and fills latitude/longitude on clinics that don't have them
+ * yet, matching on city+state+country, then city+country, then a city name
+ * that is unique in the file. Runs once at startup when geo.gazetteer-path is
+ * set; clinics that already have coordinates are never touched, so later runs
+ * only pick up new clinics.
+ */
+@Service
+public class ClinicGeocoder {
+
+    private final ClinicRepository clinicRepository;
+
+    @Value("${geo.gazetteer-path:}")
+    private String gazetteerPath;
+
+    public ClinicGeocoder(ClinicRepository clinicRepository) {
+        this.clinicRepository = clinicRepository;
+    }
+
+    private record Place(double latitude, double longitude) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void geocodeOnStartup() {
+        if (gazetteerPath == null || gazetteerPath.isBlank()) return;
+        try {
+            geocodeMissing(Path.of(gazetteerPath));
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not read gazetteer " + gazetteerPath + ": " + e.getMessage());
+        }
+    }
+
+    private int geocodeMissing(Path gazetteer) throws IOException {
+        List<Clinic> pending = clinicRepository.findByLatitudeIsNullOrLongitudeIsNull();
+        if (pending.isEmpty()) return 0;
+
+        Map<String, Place> places = new HashMap<>();
+        Set<String> ambiguousCities = new HashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(gazetteer, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] cols = line.split(",", -1);
+                if (cols.length < 5) continue;
+                Place place;
+                try {
+                    place = new Place(Double.parseDouble(cols[3].trim()), Double.parseDouble(cols[4].trim()));
+                } catch (NumberFormatException e) {
+                    continue; // header or malformed row
+                }
+                String city = key(cols[0]), state = key(cols[1]), country = key(cols[2]);
+                places.putIfAbsent(city + "|" + state + "|" + country, place);
+                places.putIfAbsent(city + "||" + country, place);
+                if (places.putIfAbsent(city + "||", place) != null) {
+                    ambiguousCities.add(city);
+                }
+            }
+        }
+
+        int located = 0;
+        for (Clinic clinic : pending) {
+            String city = key(clinic.getCity());
+            if (city.isEmpty()) continue;
+            Place place = places.get(city + "|" + key(clinic.getState()) + "|" + key(clinic.getCountry()));
+            if (place == null) place = places.get(city + "||" + key(clinic.getCountry()));
+            if (place == null && !ambiguousCities.contains(city)) place = places.get(city + "||");
+            if (place == null) continue;
+
+            clinic.setLatitude(place.latitude());
+            clinic.setLongitude(place.longitude());
+            located++;
+        }
+        clinicRepository.saveAll(pending);
+
+        System.out.println("📍 Geocoded " + located + "/" + pending.size() + " clinics from " + gazetteer);
+        return located;
+    }
+
+    private static String key(String value) {
+        return DoctorSearchIndex.normalize(value);
+    }
+}
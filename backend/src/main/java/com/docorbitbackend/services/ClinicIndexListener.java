@@ -0,0 +1,51 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.models.Clinic;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// JPA entity listener on Clinic: keeps the geo index, the autocomplete trie and the doctors' indexed city current.
+// Clinic deletes cascade to the doctors, whose own listener takes them out of the search index.
+@Component
+public class ClinicIndexListener {
+
+    private final ObjectProvider<DoctorSearchIndex> searchIndex;
+    private final ObjectProvider<ClinicGeoIndex> geoIndex;
+    private final ObjectProvider<AutocompleteIndex> autocompleteIndex;
+    private final ObjectProvider<CatalogVersion> catalogVersion;
+
+    public ClinicIndexListener(ObjectProvider<DoctorSearchIndex> searchIndex,
+                               ObjectProvider<ClinicGeoIndex> geoIndex,
+                               ObjectProvider<AutocompleteIndex> autocompleteIndex,
+                               ObjectProvider<CatalogVersion> catalogVersion) {
+        this.searchIndex = searchIndex;
+        this.geoIndex = geoIndex;
+        this.autocompleteIndex = autocompleteIndex;
+        this.catalogVersion = catalogVersion;
+    }
+
+    @PostPersist
+    public void onCreated(Clinic clinic) {
+        geoIndex.getObject().clinicSaved(clinic);
+        autocompleteIndex.getObject().clinicSaved(clinic);
+        catalogVersion.getObject().changed();
+    }
+
+    @PostUpdate
+    public void onUpdated(Clinic clinic) {
+        searchIndex.getObject().clinicChanged(clinic.getId());
+        geoIndex.getObject().clinicSaved(clinic);
+        autocompleteIndex.getObject().clinicSaved(clinic);
+        catalogVersion.getObject().changed();
+    }
+
+    @PostRemove
+    public void onRemoved(Clinic clinic) {
+        geoIndex.getObject().clinicRemoved(clinic.getId());
+        autocompleteIndex.getObject().removed(AutocompleteIndex.Type.CLINIC, clinic.getId());
+        catalogVersion.getObject().changed();
+    }
+}
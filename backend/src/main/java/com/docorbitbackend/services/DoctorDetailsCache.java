@@ -0,0 +1,132 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.dtos.responsedtos.DoctorDetailsDto;
+import com.docorbitbackend.repositories.DoctorRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.docorbitbackend.services.TransactionHooks.afterCommit;
+
+/**
+ * Bounded read-through cache for GET /api/doctors/{id}.
+ * Holds immutable doctor-plus-clinic views keyed by doctor id (LRU eviction).
+ * Entries are dropped after DoctorService updates/deletes and clinic updates.
+ * Stats are published with the usual Micrometer cache meter names
+ * (cache.gets{result=hit|miss}, cache.evictions, cache.size; cache=doctors).
+ */
+@Service
+public class DoctorDetailsCache {
+
+    private static final String CACHE_NAME = "doctors";
+
+    private final DoctorRepository doctorRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${doctor.cache.max-entries:20000}")
+    private int maxEntries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // Bumped on every invalidation; a load that overlapped one isn't cached (it may be stale)
+    private long generation;
+
+    // Access-ordered LinkedHashMap = LRU; guarded by its own monitor
+    private final Map<Long, DoctorDetailsDto> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, DoctorDetailsDto> eldest) {
+            if (size() > maxEntries) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    public DoctorDetailsCache(DoctorRepository doctorRepository, MeterRegistry meterRegistry) {
+        this.doctorRepository = doctorRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        Tags tags = Tags.of("cache", CACHE_NAME);
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags(tags).tag("result", "hit")
+                .description("Doctor lookups answered from the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags(tags).tag("result", "miss")
+                .description("Doctor lookups that went to the database")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tags(tags)
+                .description("Doctor views evicted because the cache was full")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, DoctorDetailsCache::size)
+                .tags(tags)
+                .description("Doctor views currently cached")
+                .register(meterRegistry);
+    }
+
+    public DoctorDetailsDto get(Long doctorId) {
+        long loadGeneration;
+        synchronized (cache) {
+            DoctorDetailsDto cached = cache.get(doctorId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        misses.incrementAndGet();
+
+        // ✅ Cache miss → doctor and clinic in one query
+        DoctorDetailsDto loaded = doctorRepository.findWithClinicById(doctorId)
+                .map(DoctorDetailsDto::from)
+                .orElseThrow(() -> new RuntimeException("Doctor not found with id: " + doctorId));
+
+        synchronized (cache) {
+            if (generation == loadGeneration) {
+                cache.put(doctorId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    // Dropped now and again after commit, so a read racing the write can't re-cache the old view
+    public void evict(Long doctorId) {
+        invalidate(() -> cache.remove(doctorId));
+        afterCommit(() -> invalidate(() -> cache.remove(doctorId)));
+    }
+
+    public void evictClinic(Long clinicId) {
+        Runnable dropClinic = () -> cache.values().removeIf(d -> d.clinic() != null && Objects.equals(d.clinic().id(), clinicId));
+        invalidate(dropClinic);
+        afterCommit(() -> invalidate(dropClinic));
+    }
+
+    private void invalidate(Runnable removal) {
+        synchronized (cache) {
+            generation++;
+            removal.run();
+        }
+    }
+
+    private double size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+}
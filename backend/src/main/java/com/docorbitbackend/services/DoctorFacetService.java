@@ -0,0 +1,146 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.dtos.responsedtos.DoctorFacetsDto;
+import com.docorbitbackend.models.Doctor;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Facet counts for the doctor directory: per specialization, per clinic city
+ * and per rating bucket. Counts are adjusted by DoctorSearchIndex whenever a
+ * doctor snapshot is added, replaced or removed, so the whole-directory facets
+ * are always ready without a GROUP BY. Facets over a search result are counted
+ * from the in-memory snapshots the search already returned.
+ */
+@Service
+public class DoctorFacetService {
+
+    public enum Dimension { SPECIALIZATION, CITY, RATING }
+
+    public static final String UNRATED = "Unrated";
+
+    // Values differing only in case/accents ("cardiology" vs "Cardiology") share a bucket;
+    // the label shown is the first spelling seen
+    private static final class Bucket {
+        final String label;
+        final AtomicLong count = new AtomicLong();
+
+        Bucket(String label) {
+            this.label = label;
+        }
+    }
+
+    private final Map<Dimension, Map<String, Bucket>> counts = new EnumMap<>(Dimension.class);
+
+    public DoctorFacetService() {
+        for (Dimension dimension : Dimension.values()) {
+            counts.put(dimension, new ConcurrentHashMap<>());
+        }
+    }
+
+    public void add(Doctor doctor) {
+        adjust(doctor, 1);
+    }
+
+    public void remove(Doctor doctor) {
+        adjust(doctor, -1);
+    }
+
+    private void adjust(Doctor doctor, int delta) {
+        for (Map.Entry<Dimension, String> value : valuesOf(doctor).entrySet()) {
+            String label = value.getValue();
+            counts.get(value.getKey())
+                    .computeIfAbsent(DoctorSearchIndex.normalize(label), k -> new Bucket(label))
+                    .count.addAndGet(delta);
+        }
+    }
+
+    // Whole-directory counts, largest first
+    public DoctorFacetsDto snapshot() {
+        Map<Dimension, Map<String, Long>> result = new EnumMap<>(Dimension.class);
+        for (Dimension dimension : Dimension.values()) {
+            Map<String, Long> values = new HashMap<>();
+            for (Bucket bucket : counts.get(dimension).values()) {
+                long count = bucket.count.get();
+                if (count > 0) values.put(bucket.label, count);
+            }
+            result.put(dimension, values);
+        }
+        return toDto(result);
+    }
+
+    // Counts over a given set of doctors (e.g. the matches of a search)
+    public DoctorFacetsDto countOver(Collection<Doctor> doctors) {
+        Map<Dimension, Map<String, Long>> result = new EnumMap<>(Dimension.class);
+        Map<Dimension, Map<String, String>> labels = new EnumMap<>(Dimension.class);
+        for (Dimension dimension : Dimension.values()) {
+            result.put(dimension, new HashMap<>());
+            labels.put(dimension, new HashMap<>());
+        }
+        for (Doctor doctor : doctors) {
+            for (Map.Entry<Dimension, String> value : valuesOf(doctor).entrySet()) {
+                String label = labels.get(value.getKey())
+                        .computeIfAbsent(DoctorSearchIndex.normalize(value.getValue()), k -> labelFor(value.getKey(), k, value.getValue()));
+                result.get(value.getKey()).merge(label, 1L, Long::sum);
+            }
+        }
+        return toDto(result);
+    }
+
+    // Prefer the label already used by the global facets so both views spell values the same
+    private String labelFor(Dimension dimension, String key, String fallback) {
+        Bucket bucket = counts.get(dimension).get(key);
+        return bucket != null ? bucket.label : fallback;
+    }
+
+    public boolean matches(Doctor doctor, Dimension dimension, String wanted) {
+        if (wanted == null || wanted.isBlank()) return true;
+        String value = valuesOf(doctor).get(dimension);
+        return value != null && DoctorSearchIndex.normalize(value).equals(DoctorSearchIndex.normalize(wanted));
+    }
+
+    static Map<Dimension, String> valuesOf(Doctor doctor) {
+        Map<Dimension, String> values = new EnumMap<>(Dimension.class);
+        if (doctor.getSpecialization() != null && !doctor.getSpecialization().isBlank()) {
+            values.put(Dimension.SPECIALIZATION, doctor.getSpecialization().trim());
+        }
+        if (doctor.getClinic() != null && doctor.getClinic().getCity() != null && !doctor.getClinic().getCity().isBlank()) {
+            values.put(Dimension.CITY, doctor.getClinic().getCity().trim());
+        }
+        values.put(Dimension.RATING, ratingBucket(doctor.getRating()));
+        return values;
+    }
+
+    public static String ratingBucket(Double rating) {
+        if (rating == null) return UNRATED;
+        if (rating >= 4.5) return "4.5+";
+        if (rating >= 4.0) return "4.0-4.5";
+        if (rating >= 3.0) return "3.0-4.0";
+        return "Below 3.0";
+    }
+
+    private static DoctorFacetsDto toDto(Map<Dimension, Map<String, Long>> counts) {
+        return DoctorFacetsDto.builder()
+                .specialization(sorted(counts.get(Dimension.SPECIALIZATION)))
+                .city(sorted(counts.get(Dimension.CITY)))
+                .rating(sorted(counts.get(Dimension.RATING)))
+                .build();
+    }
+
+    private static Map<String, Long> sorted(Map<String, Long> values) {
+        Map<String, Long> ordered = new LinkedHashMap<>();
+        values.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .forEach(e -> ordered.put(e.getKey(), e.getValue()));
+        return ordered;
+    }
+}
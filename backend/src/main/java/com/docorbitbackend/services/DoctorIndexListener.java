@@ -0,0 +1,41 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.models.Doctor;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// JPA entity listener on Doctor (instantiated by Spring through Hibernate's bean container).
+// The index is looked up lazily: it depends on the repositories, which depend on this listener.
+@Component
+public class DoctorIndexListener {
+
+    private final ObjectProvider<DoctorSearchIndex> searchIndex;
+    private final ObjectProvider<AutocompleteIndex> autocompleteIndex;
+    private final ObjectProvider<CatalogVersion> catalogVersion;
+
+    public DoctorIndexListener(ObjectProvider<DoctorSearchIndex> searchIndex,
+                               ObjectProvider<AutocompleteIndex> autocompleteIndex,
+                               ObjectProvider<CatalogVersion> catalogVersion) {
+        this.searchIndex = searchIndex;
+        this.autocompleteIndex = autocompleteIndex;
+        this.catalogVersion = catalogVersion;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Doctor doctor) {
+        searchIndex.getObject().doctorChanged(doctor.getId());
+        autocompleteIndex.getObject().doctorSaved(doctor);
+        catalogVersion.getObject().changed(); // last, so its after-commit bump follows the index updates
+    }
+
+    @PostRemove
+    public void onRemoved(Doctor doctor) {
+        searchIndex.getObject().doctorRemoved(doctor.getId());
+        autocompleteIndex.getObject().removed(AutocompleteIndex.Type.DOCTOR, doctor.getId());
+        catalogVersion.getObject().changed();
+    }
+}
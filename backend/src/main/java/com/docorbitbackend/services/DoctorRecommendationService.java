@@ -0,0 +1,134 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.dtos.responsedtos.RecommendedDoctorDto;
+import com.docorbitbackend.models.Clinic;
+import com.docorbitbackend.models.Doctor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranks doctors of one specialization by rating, how soon they have a free
+ * slot and (when the caller gives a location) how close their clinic is.
+ * Candidates are the in-memory snapshots from DoctorSearchIndex, next free
+ * slots come from the occupancy bitmaps, and only the best {@code limit} are
+ * kept in a min-heap while scanning, so a request never touches the database
+ * or sorts the whole candidate set.
+ */
+@Service
+public class DoctorRecommendationService {
+
+    // How far ahead a free slot still counts; later than this scores like "fully booked"
+    public static final int LOOKAHEAD_DAYS = 14;
+
+    private static final double RATING_WEIGHT = 0.45;
+    private static final double AVAILABILITY_WEIGHT = 0.35;
+    private static final double PROXIMITY_WEIGHT = 0.20;
+    // Distance at which the proximity part drops to one half
+    private static final double PROXIMITY_HALF_KM = 10.0;
+
+    private final DoctorSearchIndex doctorSearchIndex;
+    private final SlotOccupancyService slotOccupancyService;
+    private final DistributionSummary candidateSizes;
+    private final Timer scoringTimer;
+
+    public DoctorRecommendationService(DoctorSearchIndex doctorSearchIndex,
+                                       SlotOccupancyService slotOccupancyService,
+                                       MeterRegistry meterRegistry) {
+        this.doctorSearchIndex = doctorSearchIndex;
+        this.slotOccupancyService = slotOccupancyService;
+        this.candidateSizes = DistributionSummary.builder("doctors.recommend.candidates")
+                .description("Doctors scored per recommendation request")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.scoringTimer = Timer.builder("doctors.recommend.scoring")
+                .description("Time spent scoring and ranking recommendation candidates")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    private record Scored(Doctor doctor, double score, LocalDateTime nextAvailable, Double distanceKm) {
+    }
+
+    /**
+     * Top {@code limit} doctors for the specialization, best first.
+     * {@code lat}/{@code lng} are optional; without them location is left out of the score.
+     */
+    public List<RecommendedDoctorDto> recommend(String specialization, LocalDate date,
+                                                Double lat, Double lng, int limit) {
+        List<Doctor> candidates = doctorSearchIndex.doctorsWithSpecialization(specialization);
+        candidateSizes.record(candidates.size());
+
+        long started = System.nanoTime();
+        boolean withLocation = lat != null && lng != null;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime reference = date.atStartOfDay().isAfter(now) ? date.atStartOfDay() : now;
+        double horizonMinutes = LOOKAHEAD_DAYS * 24 * 60.0;
+
+        PriorityQueue<Scored> best = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(Scored::score));
+        for (Doctor doctor : candidates) {
+            LocalDateTime next = slotOccupancyService.nextFreeSlot(doctor.getId(), date, LOOKAHEAD_DAYS);
+            double availability = next == null ? 0.0
+                    : Math.max(0.0, 1.0 - Duration.between(reference, next).toMinutes() / horizonMinutes);
+            double rating = (doctor.getRating() != null ? Math.min(doctor.getRating(), 5.0) : 3.0) / 5.0;
+
+            double score = RATING_WEIGHT * rating + AVAILABILITY_WEIGHT * availability;
+            Double distanceKm = null;
+            if (withLocation) {
+                Clinic clinic = doctor.getClinic();
+                if (clinic != null && clinic.getLatitude() != null && clinic.getLongitude() != null) {
+                    distanceKm = ClinicGeoIndex.distanceKm(lat, lng, clinic.getLatitude(), clinic.getLongitude());
+                    score += PROXIMITY_WEIGHT * PROXIMITY_HALF_KM / (PROXIMITY_HALF_KM + distanceKm);
+                }
+            } else {
+                // Same 0..1 range whether or not location takes part
+                score /= RATING_WEIGHT + AVAILABILITY_WEIGHT;
+            }
+
+            if (best.size() < limit) {
+                best.add(new Scored(doctor, score, next, distanceKm));
+            } else if (score > best.peek().score()) {
+                best.poll();
+                best.add(new Scored(doctor, score, next, distanceKm));
+            }
+        }
+
+        List<Scored> ranked = new ArrayList<>(best);
+        ranked.sort(Comparator.comparingDouble(Scored::score).reversed()
+                .thenComparing(s -> s.doctor().getId()));
+        List<RecommendedDoctorDto> result = new ArrayList<>(ranked.size());
+        for (Scored scored : ranked) {
+            result.add(toDto(scored));
+        }
+        scoringTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    private static RecommendedDoctorDto toDto(Scored scored) {
+        Doctor doctor = scored.doctor();
+        Clinic clinic = doctor.getClinic();
+        return RecommendedDoctorDto.builder()
+                .id(doctor.getId())
+                .name(doctor.getName())
+                .specialization(doctor.getSpecialization())
+                .rating(doctor.getRating())
+                .clinicId(clinic != null ? clinic.getId() : null)
+                .clinicName(clinic != null ? clinic.getName() : null)
+                .city(clinic != null ? clinic.getCity() : null)
+                .country(clinic != null ? clinic.getCountry() : null)
+                .nextAvailable(scored.nextAvailable())
+                .distanceKm(scored.distanceKm() == null ? null : Math.round(scored.distanceKm() * 100.0) / 100.0)
+                .score(Math.round(scored.score() * 1000.0) / 1000.0)
+                .build();
+    }
+}
@@ -0,0 +1,258 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.models.Clinic;
+import com.docorbitbackend.models.Doctor;
+import com.docorbitbackend.repositories.DoctorRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.docorbitbackend.services.TransactionHooks.afterCommit;
+
+/**
+ * In-memory trigram index over doctor name, specialization and clinic city.
+ * Each field keeps posting sets (trigram → doctor ids); a query is split into
+ * trigrams and doctors are ranked by the share of query trigrams they contain,
+ * so "cardilogy" still finds "Cardiology". Results are served from doctor
+ * snapshots held here (clinic included), without touching the database.
+ * DoctorIndexListener keeps the index current after every committed change;
+ * DoctorFacetService counts are adjusted here as snapshots come and go.
+ */
+@Service
+public class DoctorSearchIndex {
+
+    public enum Field {
+        NAME(1.0), SPECIALIZATION(1.0), CITY(0.8);
+
+        private final double weight;
+
+        Field(double weight) {
+            this.weight = weight;
+        }
+    }
+
+    // Minimum share of query trigrams a field must contain to count as a match
+    private static final double MIN_SIMILARITY = 0.5;
+
+    private final DoctorRepository doctorRepository;
+    private final DoctorFacetService facetService;
+    private final TransactionTemplate readTransaction;
+
+    private final Map<Long, Doctor> doctors = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Field, String>> indexedText = new ConcurrentHashMap<>();
+    private final Map<Field, Map<String, Set<Long>>> postings = new EnumMap<>(Field.class);
+    private final Map<Long, Set<Long>> doctorsByClinic = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> doctorsBySpecialization = new ConcurrentHashMap<>();
+
+    public DoctorSearchIndex(DoctorRepository doctorRepository,
+                             DoctorFacetService facetService,
+                             PlatformTransactionManager transactionManager) {
+        this.doctorRepository = doctorRepository;
+        this.facetService = facetService;
+        // Reloads run after the writer's commit, so they need a fresh transaction of their own
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        for (Field field : Field.values()) {
+            postings.put(field, new ConcurrentHashMap<>());
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        List<Doctor> all = readTransaction.execute(tx -> doctorRepository.findAllWithClinic());
+        all.forEach(this::put);
+        System.out.println("🔎 Doctor search index built for " + doctors.size() + " doctors");
+    }
+
+    // ✅ Called by DoctorIndexListener; applied once the change is committed
+    public void doctorChanged(Long doctorId) {
+        afterCommit(() -> reload(List.of(doctorId)));
+    }
+
+    public void doctorRemoved(Long doctorId) {
+        afterCommit(() -> remove(doctorId));
+    }
+
+    // A clinic rename/move changes the indexed city of all its doctors
+    public void clinicChanged(Long clinicId) {
+        afterCommit(() -> reload(readTransaction.execute(tx -> doctorRepository.findIdsByClinicId(clinicId))));
+    }
+
+    public Doctor get(Long doctorId) {
+        return doctors.get(doctorId);
+    }
+
+    public Collection<Doctor> all() {
+        return doctors.values();
+    }
+
+    // Snapshots of the doctors working at a clinic (used by the geo index)
+    public List<Doctor> doctorsAtClinic(Long clinicId) {
+        Set<Long> ids = doctorsByClinic.get(clinicId);
+        if (ids == null) return List.of();
+        List<Doctor> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Doctor doctor = doctors.get(id);
+            if (doctor != null) result.add(doctor);
+        }
+        return result;
+    }
+
+    // Snapshots of the doctors with exactly this specialization (compared normalized)
+    public List<Doctor> doctorsWithSpecialization(String specialization) {
+        Set<Long> ids = doctorsBySpecialization.get(normalize(specialization));
+        if (ids == null) return List.of();
+        List<Doctor> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Doctor doctor = doctors.get(id);
+            if (doctor != null) result.add(doctor);
+        }
+        return result;
+    }
+
+    public List<Doctor> search(String query, Field... fields) {
+        String normalized = normalize(query);
+        Set<String> queryGrams = trigrams(normalized);
+        if (queryGrams.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (Field field : fields) {
+            Map<Long, Integer> hits = new HashMap<>();
+            Map<String, Set<Long>> fieldPostings = postings.get(field);
+            for (String gram : queryGrams) {
+                Set<Long> ids = fieldPostings.get(gram);
+                if (ids != null) {
+                    for (Long id : ids) {
+                        hits.merge(id, 1, Integer::sum);
+                    }
+                }
+            }
+
+            for (Map.Entry<Long, Integer> hit : hits.entrySet()) {
+                double similarity = (double) hit.getValue() / queryGrams.size();
+                if (similarity < MIN_SIMILARITY) continue;
+
+                Map<Field, String> text = indexedText.get(hit.getKey());
+                if (text == null) continue;
+                // Exact substring matches (the old LIKE behaviour) always rank above fuzzy ones
+                double score = field.weight * (similarity + (text.get(field).contains(normalized) ? 1.0 : 0.0));
+                scores.merge(hit.getKey(), score, Math::max);
+            }
+        }
+
+        List<Doctor> result = new ArrayList<>(scores.size());
+        for (Long id : scores.keySet()) {
+            Doctor doctor = doctors.get(id);
+            if (doctor != null) result.add(doctor);
+        }
+        result.sort(Comparator.<Doctor>comparingDouble(d -> -scores.get(d.getId()))
+                .thenComparing(d -> d.getRating() == null ? 0.0 : -d.getRating())
+                .thenComparing(d -> d.getName() == null ? "" : d.getName(), String.CASE_INSENSITIVE_ORDER));
+        return result;
+    }
+
+    private void reload(Collection<Long> doctorIds) {
+        if (doctorIds.isEmpty()) return;
+        List<Doctor> fresh = readTransaction.execute(tx -> doctorRepository.findAllWithClinicByIdIn(doctorIds));
+        Set<Long> found = new HashSet<>();
+        for (Doctor doctor : fresh) {
+            put(doctor);
+            found.add(doctor.getId());
+        }
+        for (Long id : doctorIds) {
+            if (!found.contains(id)) remove(id);
+        }
+    }
+
+    private synchronized void put(Doctor doctor) {
+        Map<Field, String> text = new EnumMap<>(Field.class);
+        Clinic clinic = doctor.getClinic();
+        text.put(Field.NAME, normalize(doctor.getName()));
+        text.put(Field.SPECIALIZATION, normalize(doctor.getSpecialization()));
+        text.put(Field.CITY, normalize(clinic != null ? clinic.getCity() : null));
+
+        unindex(doctor.getId());
+        for (Field field : Field.values()) {
+            for (String gram : trigrams(text.get(field))) {
+                postings.get(field).computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(doctor.getId());
+            }
+        }
+        indexedText.put(doctor.getId(), text);
+        Doctor previous = doctors.put(doctor.getId(), doctor);
+        if (previous != null) facetService.remove(previous);
+        facetService.add(doctor);
+        if (clinic != null) {
+            doctorsByClinic.computeIfAbsent(clinic.getId(), c -> ConcurrentHashMap.newKeySet()).add(doctor.getId());
+        }
+        doctorsBySpecialization.computeIfAbsent(text.get(Field.SPECIALIZATION), s -> ConcurrentHashMap.newKeySet())
+                .add(doctor.getId());
+    }
+
+    private synchronized void remove(Long doctorId) {
+        unindex(doctorId);
+        indexedText.remove(doctorId);
+        Doctor previous = doctors.remove(doctorId);
+        if (previous != null) facetService.remove(previous);
+    }
+
+    private void unindex(Long doctorId) {
+        Doctor previousDoctor = doctors.get(doctorId);
+        if (previousDoctor != null && previousDoctor.getClinic() != null) {
+            Set<Long> atClinic = doctorsByClinic.get(previousDoctor.getClinic().getId());
+            if (atClinic != null) atClinic.remove(doctorId);
+        }
+
+        Map<Field, String> previous = indexedText.get(doctorId);
+        if (previous == null) return;
+        Set<Long> withSpecialization = doctorsBySpecialization.get(previous.get(Field.SPECIALIZATION));
+        if (withSpecialization != null) withSpecialization.remove(doctorId);
+        for (Field field : Field.values()) {
+            Map<String, Set<Long>> fieldPostings = postings.get(field);
+            for (String gram : trigrams(previous.get(field))) {
+                Set<Long> ids = fieldPostings.get(gram);
+                if (ids != null) {
+                    ids.remove(doctorId);
+                    if (ids.isEmpty()) fieldPostings.remove(gram, ids);
+                }
+            }
+        }
+    }
+
+    // Lower case, accents stripped, anything that isn't a letter or digit becomes a space
+    static String normalize(String text) {
+        if (text == null) return "";
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    // Per-word trigrams, padded so word starts and short words ("ent") still produce grams
+    static Set<String> trigrams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        if (normalized.isEmpty()) return grams;
+        for (String word : normalized.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+}
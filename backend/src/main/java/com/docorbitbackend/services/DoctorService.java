@@ -1,11 +1,23 @@
 package com.docorbitbackend.services;
 
+import com.docorbitbackend.dtos.requestdtos.DoctorCursor;
+import com.docorbitbackend.dtos.responsedtos.DoctorDetailsDto;
+import com.docorbitbackend.dtos.responsedtos.DoctorPage;
+import com.docorbitbackend.dtos.responsedtos.DoctorSummaryDto;
+import com.docorbitbackend.dtos.responsedtos.FacetedDoctorSearchDto;
+import com.docorbitbackend.enums.DoctorSort;
 import com.docorbitbackend.models.Clinic;
 import com.docorbitbackend.models.Doctor;
 import com.docorbitbackend.repositories.ClinicRepository;
 import com.docorbitbackend.repositories.DoctorRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
@@ -13,25 +25,85 @@ public class DoctorService {
 
     private final DoctorRepository doctorRepository;
     private final ClinicRepository clinicRepository;
+    private final DoctorSearchIndex searchIndex;
+    private final DoctorDetailsCache detailsCache;
+    private final DoctorFacetService facetService;
 
-    public DoctorService(DoctorRepository doctorRepository, ClinicRepository clinicRepository) {
+    public DoctorService(DoctorRepository doctorRepository,
+                         ClinicRepository clinicRepository,
+                         DoctorSearchIndex searchIndex,
+                         DoctorDetailsCache detailsCache,
+                         DoctorFacetService facetService) {
         this.doctorRepository = doctorRepository;
         this.clinicRepository = clinicRepository;
+        this.searchIndex = searchIndex;
+        this.detailsCache = detailsCache;
+        this.facetService = facetService;
     }
 
-    public Doctor getDoctorById(Long id) {
-        return doctorRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Doctor not found with id: " + id));
+    // ✅ Read-through cache: doctor + clinic, one query on a miss
+    public DoctorDetailsDto getDoctorById(Long id) {
+        return detailsCache.get(id);
     }
 
+    // ✅ Served from the trigram index (ranked, typo tolerant), no LIKE '%x%' scan
     public List<Doctor> searchDoctorsBySpecialization(String specialization) {
-        return doctorRepository.findBySpecializationContainingIgnoreCase(specialization);
+        return searchIndex.search(specialization, DoctorSearchIndex.Field.SPECIALIZATION);
     }
 
     public List<Doctor> searchDoctorsByName(String name) {
-        return doctorRepository.findByNameContainingIgnoreCase(name);
+        return searchIndex.search(name, DoctorSearchIndex.Field.NAME);
+    }
+
+    // Free-text search over name, specialization and clinic city
+    public List<Doctor> searchDoctors(String query) {
+        return searchIndex.search(query, DoctorSearchIndex.Field.values());
     }
 
+    /**
+     * Search plus facet counts in one go, all from memory. Facets describe every
+     * match of q (precomputed counts when there is no q); the optional
+     * specialization/city/rating filters narrow the results only.
+     */
+    public FacetedDoctorSearchDto searchFaceted(String q, String specialization, String city, String rating, int size) {
+        boolean browsing = q == null || q.isBlank();
+        List<Doctor> matches;
+        if (browsing) {
+            matches = new ArrayList<>(searchIndex.all());
+            matches.sort(Comparator.comparing((Doctor d) -> d.getRating() == null ? 0.0 : -d.getRating())
+                    .thenComparing(d -> d.getName() == null ? "" : d.getName(), String.CASE_INSENSITIVE_ORDER));
+        } else {
+            matches = searchDoctors(q);
+        }
+
+        List<Doctor> filtered = matches.stream()
+                .filter(d -> facetService.matches(d, DoctorFacetService.Dimension.SPECIALIZATION, specialization))
+                .filter(d -> facetService.matches(d, DoctorFacetService.Dimension.CITY, city))
+                .filter(d -> facetService.matches(d, DoctorFacetService.Dimension.RATING, rating))
+                .toList();
+
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return FacetedDoctorSearchDto.builder()
+                .results(filtered.stream().limit(pageSize).map(DoctorService::toSummary).toList())
+                .total(filtered.size())
+                .facets(browsing ? facetService.snapshot() : facetService.countOver(matches))
+                .build();
+    }
+
+    private static DoctorSummaryDto toSummary(Doctor doctor) {
+        Clinic clinic = doctor.getClinic();
+        return DoctorSummaryDto.builder()
+                .id(doctor.getId())
+                .name(doctor.getName())
+                .specialization(doctor.getSpecialization())
+                .rating(doctor.getRating())
+                .clinicName(clinic != null ? clinic.getName() : null)
+                .city(clinic != null ? clinic.getCity() : null)
+                .country(clinic != null ? clinic.getCountry() : null)
+                .build();
+    }
+
+    @Transactional
     public Doctor createDoctor(Doctor doctor, Integer clinicId) {
         Clinic clinic = clinicRepository.findById(clinicId)
                 .orElseThrow(() -> new RuntimeException("Clinic not found with id: " + clinicId));
@@ -39,7 +111,9 @@ public class DoctorService {
         return doctorRepository.save(doctor);
     }
 
+    @Transactional
     public Doctor updateDoctor(Long id, Doctor updatedDoctor) {
+        detailsCache.evict(id);
         return doctorRepository.findById(id)
                 .map(existing -> {
                     existing.setName(updatedDoctor.getName());
@@ -55,7 +129,9 @@ public class DoctorService {
                 .orElseThrow(() -> new RuntimeException("Doctor not found with id: " + id));
     }
 
+    @Transactional
     public void deleteDoctor(Long id) {
+        detailsCache.evict(id);
         doctorRepository.deleteById(id);
     }
 
@@ -63,11 +139,30 @@ public class DoctorService {
         return doctorRepository.findByClinicId(clinicId);
     }
 
-    public List<Doctor> getAllDoctors() {
-        List<Doctor> doctors = doctorRepository.findAllDistinct();
-        System.out.println("✅ Found " + doctors.size() + " unique doctors in DB");
-        doctors.forEach(d -> System.out.println(" -> " + d.getName() + " (" + d.getSpecialization() + ")"));
-        return doctors;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * One page of the directory as lightweight rows. With a cursor the page is
+     * found by keyset (cost independent of depth); otherwise page/size offsets are used.
+     */
+    @Transactional(readOnly = true)
+    public DoctorPage getDoctorPage(DoctorSort sort, DoctorCursor after, int page, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Pageable pageable = after != null ? PageRequest.of(0, pageSize) : PageRequest.of(Math.max(page, 0), pageSize);
+
+        Slice<DoctorSummaryDto> slice = sort == DoctorSort.RATING
+                ? doctorRepository.findSummariesByRating(after != null,
+                        after != null ? after.rating() : null, after != null ? after.id() : null, pageable)
+                : doctorRepository.findSummariesByName(after != null,
+                        after != null ? after.name() : null, after != null ? after.id() : null, pageable);
+
+        List<DoctorSummaryDto> items = slice.getContent();
+        if (!slice.hasNext() || items.isEmpty()) {
+            return new DoctorPage(items, null);
+        }
+        DoctorSummaryDto last = items.get(items.size() - 1);
+        return new DoctorPage(items, new DoctorCursor(sort, last.getId(), last.getName(), last.getRating()).encode());
     }
 
 }
@@ -0,0 +1,213 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.dtos.responsedtos.AppointmentResponseDto;
+import com.docorbitbackend.enums.EmailType;
+import com.docorbitbackend.enums.OutboxStatus;
+import com.docorbitbackend.models.EmailOutbox;
+import com.docorbitbackend.repositories.EmailOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.docorbitbackend.services.TransactionHooks.afterCommit;
+
+/**
+ * Transactional email outbox.
+ * enqueue() only inserts a row, so it commits or rolls back together with the
+ * appointment change that produced it. drain() runs in the background: it
+ * claims a batch of due rows in a short transaction (row locks with SKIP LOCKED,
+ * then PENDING → IN_FLIGHT), so concurrent drains and other instances never
+ * pick the same row, sends the batch on a small pool and reschedules failures
+ * with exponential backoff until max-attempts is reached. A claim is a lease:
+ * rows left IN_FLIGHT past claim-timeout-seconds (a crashed instance) are
+ * handed out again.
+ */
+@Service
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailService emailService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${email.outbox.threads:4}")
+    private int threads;
+
+    @Value("${email.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${email.outbox.base-backoff-seconds:30}")
+    private long baseBackoffSeconds;
+
+    // Must comfortably exceed the time one batch takes to send
+    @Value("${email.outbox.claim-timeout-seconds:300}")
+    private long claimTimeoutSeconds;
+
+    private ExecutorService senderPool;
+
+    private static final TypeReference<List<AppointmentResponseDto>> APPOINTMENT_LIST = new TypeReference<>() {};
+
+    // Refreshed on every poll; read by the email.outbox.backlog gauge
+    private final AtomicLong backlog = new AtomicLong();
+
+    public EmailOutboxService(EmailOutboxRepository outboxRepository,
+                              EmailService emailService,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              TransactionTemplate transactionTemplate) {
+        this.outboxRepository = outboxRepository;
+        this.emailService = emailService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        senderPool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "email-outbox-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        backlog.set(outboxRepository.countByStatus(OutboxStatus.PENDING));
+        Gauge.builder("email.outbox.backlog", backlog, AtomicLong::get)
+                .description("Pending emails waiting in the outbox")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senderPool.shutdown();
+    }
+
+    // ✅ Must be called inside the caller's transaction
+    public void enqueue(EmailType type, String recipientEmail, String recipientName, AppointmentResponseDto appointment) {
+        if (appointment == null) return;
+        save(type, recipientEmail, recipientName, appointment);
+    }
+
+    // Consolidated email for several appointments (batch booking); payload is a JSON array
+    public void enqueueBatch(EmailType type, String recipientEmail, String recipientName, List<AppointmentResponseDto> appointments) {
+        if (appointments == null || appointments.isEmpty()) return;
+        save(type, recipientEmail, recipientName, appointments);
+    }
+
+    private void save(EmailType type, String recipientEmail, String recipientName, Object body) {
+        if (recipientEmail == null) return;
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize email payload", e);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.save(EmailOutbox.builder()
+                .type(type)
+                .recipientEmail(recipientEmail)
+                .recipientName(recipientName)
+                .payload(payload)
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+        // Counted once the row is committed; a rolled-back booking never adds to the backlog
+        afterCommit(backlog::incrementAndGet);
+    }
+
+    public long getBacklog() {
+        return backlog.get();
+    }
+
+    // fixedDelay → the next poll only starts after the current batch is done
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:2000}")
+    public void drain() {
+        List<EmailOutbox> batch = claimBatch();
+
+        if (!batch.isEmpty()) {
+            List<CompletableFuture<Void>> sends = new ArrayList<>(batch.size());
+            for (EmailOutbox email : batch) {
+                sends.add(CompletableFuture.runAsync(() -> deliver(email), senderPool));
+            }
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).join();
+            outboxRepository.saveAll(batch);
+
+            long sent = batch.stream().filter(e -> e.getStatus() == OutboxStatus.SENT).count();
+            System.out.println("📨 Outbox batch: " + sent + "/" + batch.size() + " emails sent");
+        }
+
+        backlog.set(outboxRepository.countByStatus(OutboxStatus.PENDING));
+    }
+
+    // Claimed rows belong to this drain until they're saved back (or the lease runs out)
+    private List<EmailOutbox> claimBatch() {
+        return transactionTemplate.execute(tx -> {
+            LocalDateTime now = LocalDateTime.now();
+            int released = outboxRepository.releaseExpiredClaims(now);
+            if (released > 0) {
+                System.err.println("⚠️ Re-queued " + released + " outbox emails whose claim expired");
+            }
+
+            List<Long> ids = outboxRepository.lockDueIds(now, batchSize);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            outboxRepository.claim(ids, now.plusSeconds(claimTimeoutSeconds));
+            return outboxRepository.findAllById(ids);
+        });
+    }
+
+    private void deliver(EmailOutbox email) {
+        email.setAttempts(email.getAttempts() + 1);
+        try {
+            if (email.getType().isBatch()) {
+                List<AppointmentResponseDto> appointments = objectMapper.readValue(email.getPayload(), APPOINTMENT_LIST);
+                emailService.sendAppointmentSummaryEmail(email.getType(), email.getRecipientEmail(), email.getRecipientName(), appointments);
+            } else {
+                AppointmentResponseDto appointment = objectMapper.readValue(email.getPayload(), AppointmentResponseDto.class);
+                emailService.sendAppointmentEmail(email.getType(), email.getRecipientEmail(), email.getRecipientName(), appointment);
+            }
+            email.setStatus(OutboxStatus.SENT);
+            email.setSentAt(LocalDateTime.now());
+            email.setLastError(null);
+        } catch (Exception e) {
+            String error = String.valueOf(e.getMessage());
+            email.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+
+            if (email.getAttempts() >= maxAttempts) {
+                email.setStatus(OutboxStatus.FAILED);
+                System.err.println("❌ Giving up on outbox email " + email.getId() + " after " + email.getAttempts() + " attempts: " + error);
+            } else {
+                // 30s, 60s, 120s, ... between attempts
+                long delay = baseBackoffSeconds << (email.getAttempts() - 1);
+                email.setStatus(OutboxStatus.PENDING);
+                email.setNextAttemptAt(LocalDateTime.now().plusSeconds(delay));
+                System.err.println("⚠️ Outbox email " + email.getId() + " failed, retrying in " + delay + "s: " + error);
+            }
+        }
+    }
+}
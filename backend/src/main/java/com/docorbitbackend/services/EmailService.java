@@ -2,6 +2,8 @@ package com.docorbitbackend.services;
 
 import com.docorbitbackend.dtos.responsedtos.AppointmentResponseDto;
 import com.docorbitbackend.dtos.responsedtos.MailBody;
+import com.docorbitbackend.enums.EmailType;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
@@ -11,6 +13,7 @@ import org.springframework.stereotype.Service;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @Service
 public class EmailService {
@@ -47,17 +50,7 @@ public class EmailService {
     public void sendAppointmentConfirmationEmail(String patientEmail, String patientName, AppointmentResponseDto appointment) {
         if (appointment == null) return;
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(senderEmail);
-            helper.setTo(patientEmail);
-            helper.setSubject("✅ Appointment Confirmed - DocOrbit");
-
-            String html = buildAppointmentHtmlEmailContent(appointment, patientName, false, false);
-            helper.setText(html, true);
-
-            mailSender.send(message);
-            System.out.println("✅ Confirmation email sent to patient " + patientEmail);
+            sendAppointmentEmail(EmailType.APPOINTMENT_CONFIRMATION, patientEmail, patientName, appointment);
         } catch (Exception e) {
             System.err.println("❌ Failed to send patient confirmation email: " + e.getMessage());
         }
@@ -69,17 +62,7 @@ public class EmailService {
     public void sendDoctorNotificationEmail(String doctorEmail, String doctorName, String patientName, AppointmentResponseDto appointment) {
         if (appointment == null) return;
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(senderEmail);
-            helper.setTo(doctorEmail);
-            helper.setSubject("📅 New Appointment Booked - DocOrbit");
-
-            String html = buildAppointmentHtmlEmailContent(appointment, doctorName, true, false);
-            helper.setText(html, true);
-
-            mailSender.send(message);
-            System.out.println("📩 Doctor notification sent to " + doctorEmail);
+            sendAppointmentEmail(EmailType.DOCTOR_NOTIFICATION, doctorEmail, doctorName, appointment);
         } catch (Exception e) {
             System.err.println("❌ Failed to send doctor notification email: " + e.getMessage());
         }
@@ -91,17 +74,7 @@ public class EmailService {
     public void sendAppointmentCancellationEmail(String patientEmail, String patientName, AppointmentResponseDto appointment) {
         if (appointment == null) return;
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(senderEmail);
-            helper.setTo(patientEmail);
-            helper.setSubject("❌ Appointment Cancelled - DocOrbit");
-
-            String html = buildAppointmentHtmlEmailContent(appointment, patientName, false, true);
-            helper.setText(html, true);
-
-            mailSender.send(message);
-            System.out.println("✅ Cancellation email sent to patient " + patientEmail);
+            sendAppointmentEmail(EmailType.APPOINTMENT_CANCELLATION, patientEmail, patientName, appointment);
         } catch (Exception e) {
             System.err.println("❌ Failed to send patient cancellation email: " + e.getMessage());
         }
@@ -113,22 +86,64 @@ public class EmailService {
     public void sendDoctorCancellationEmail(String doctorEmail, String doctorName, String patientName, AppointmentResponseDto appointment) {
         if (appointment == null) return;
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(senderEmail);
-            helper.setTo(doctorEmail);
-            helper.setSubject("❌ Appointment Cancelled - DocOrbit");
-
-            String html = buildAppointmentHtmlEmailContent(appointment, doctorName, true, true);
-            helper.setText(html, true);
-
-            mailSender.send(message);
-            System.out.println("✅ Cancellation email sent to doctor " + doctorEmail);
+            sendAppointmentEmail(EmailType.DOCTOR_CANCELLATION, doctorEmail, doctorName, appointment);
         } catch (Exception e) {
             System.err.println("❌ Failed to send doctor cancellation email: " + e.getMessage());
         }
     }
 
+    /* ────────────────────────────────
+     * 📤 APPOINTMENT EMAIL (THROWING)
+     * Used by the outbox dispatcher so failures can be retried
+     * ──────────────────────────────── */
+    public void sendAppointmentEmail(EmailType type, String to, String recipientName, AppointmentResponseDto appointment)
+            throws MessagingException {
+        boolean isDoctor = type == EmailType.DOCTOR_NOTIFICATION || type == EmailType.DOCTOR_CANCELLATION;
+        boolean isCancel = type == EmailType.APPOINTMENT_CANCELLATION || type == EmailType.DOCTOR_CANCELLATION;
+
+        String subject = switch (type) {
+            case APPOINTMENT_CONFIRMATION -> "✅ Appointment Confirmed - DocOrbit";
+            case DOCTOR_NOTIFICATION -> "📅 New Appointment Booked - DocOrbit";
+            case APPOINTMENT_CANCELLATION, DOCTOR_CANCELLATION -> "❌ Appointment Cancelled - DocOrbit";
+            case BATCH_CONFIRMATION, DOCTOR_BATCH_NOTIFICATION ->
+                    throw new IllegalArgumentException(type + " is sent with sendAppointmentSummaryEmail");
+        };
+
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(senderEmail);
+        helper.setTo(to);
+        helper.setSubject(subject);
+
+        String html = buildAppointmentHtmlEmailContent(appointment, recipientName, isDoctor, isCancel);
+        helper.setText(html, true);
+
+        mailSender.send(message);
+        System.out.println("📩 " + type + " email sent to " + to);
+    }
+
+    /* ────────────────────────────────
+     * 🗂️ CONSOLIDATED BATCH EMAIL
+     * One email listing every appointment booked in a batch
+     * ──────────────────────────────── */
+    public void sendAppointmentSummaryEmail(EmailType type, String to, String recipientName, List<AppointmentResponseDto> appointments)
+            throws MessagingException {
+        boolean isDoctor = type == EmailType.DOCTOR_BATCH_NOTIFICATION;
+
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(senderEmail);
+        helper.setTo(to);
+        helper.setSubject(isDoctor
+                ? "📅 " + appointments.size() + " New Appointments Booked - DocOrbit"
+                : "✅ " + appointments.size() + " Appointments Confirmed - DocOrbit");
+
+        helper.setText(buildAppointmentSummaryHtml(appointments, recipientName, isDoctor), true);
+
+        mailSender.send(message);
+        System.out.println("📩 " + type + " email (" + appointments.size() + " appointments) sent to " + to);
+    }
+
     public void sendPasswordResetEmail(String to, String resetLink) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
@@ -181,7 +196,7 @@ public class EmailService {
         String clinicCity = appt.getClinicCity();
         String date = appt.getAppointmentDate().toString();
         String time = appt.getAppointmentTime().toString().substring(0, 5);
-        String status = appt.getStatus();
+        String status = String.valueOf(appt.getStatus());
 
         String qrData = String.format(
                 "Appointment #%d | Doctor: %s | Date: %s | Time: %s | Patient: %s",
@@ -261,4 +276,51 @@ public class EmailService {
                 date, time, status, qrCode
         );
     }
+
+    private String buildAppointmentSummaryHtml(List<AppointmentResponseDto> appointments, String recipientName, boolean isDoctor) {
+        String colorMain = isDoctor ? "#43a047" : "#1976d2";
+        String greeting = "Dear " + (isDoctor ? "Dr. " + recipientName.replaceAll("(?i)^dr\\.\\s*", "") : recipientName) + ",";
+        String intro = isDoctor
+                ? "The following appointments have been booked with you:"
+                : "Your appointments have been confirmed:";
+
+        StringBuilder rows = new StringBuilder();
+        for (AppointmentResponseDto appt : appointments) {
+            rows.append("""
+                <tr>
+                  <td style='padding:8px;border-bottom:1px solid #eee;'>%s</td>
+                  <td style='padding:8px;border-bottom:1px solid #eee;'>%s</td>
+                  <td style='padding:8px;border-bottom:1px solid #eee;'>%s</td>
+                  <td style='padding:8px;border-bottom:1px solid #eee;'>%s, %s</td>
+                </tr>
+                """.formatted(
+                    appt.getAppointmentDate(),
+                    appt.getAppointmentTime().toString().substring(0, 5),
+                    isDoctor ? appt.getPatientName() : "Dr. " + appt.getDoctorName().replaceAll("(?i)^dr\\.\\s*", ""),
+                    appt.getClinicName(), appt.getClinicCity()));
+        }
+
+        return """
+        <!DOCTYPE html>
+        <html lang='en'>
+        <body style="font-family: 'Segoe UI', Arial, sans-serif; background-color: #f5f6fa; padding: 20px; color: #333;">
+          <div style='max-width:620px;margin:0 auto;background:#fff;border-radius:14px;overflow:hidden;box-shadow:0 6px 18px rgba(0,0,0,0.08);'>
+            <div style='background:%s;color:white;padding:24px;text-align:center;font-size:26px;font-weight:700;'>DocOrbit</div>
+            <div style='padding:28px;'>
+              <p>%s</p>
+              <p>%s</p>
+              <table style='width:100%%;border-collapse:collapse;margin-top:12px;'>
+                <tr style='text-align:left;background:#fafafa;'>
+                  <th style='padding:8px;'>Date</th><th style='padding:8px;'>Time</th>
+                  <th style='padding:8px;'>%s</th><th style='padding:8px;'>Clinic</th>
+                </tr>
+                %s
+              </table>
+            </div>
+            <div style='text-align:center;font-size:12px;color:#888;padding:20px;background:#f9f9f9;'>© 2025 DocOrbit. All Rights Reserved.</div>
+          </div>
+        </body>
+        </html>
+        """.formatted(colorMain, greeting, intro, isDoctor ? "Patient" : "Doctor", rows);
+    }
 }
@@ -0,0 +1,128 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.models.IdempotencyRecord;
+import com.docorbitbackend.repositories.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers responses of mutating requests sent with an Idempotency-Key.
+ * Hot lookups are answered from a size- and TTL-bounded LRU cache; the
+ * idempotency_keys table keeps them across restarts and cache evictions.
+ */
+@Service
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository recordRepository;
+
+    @Value("${idempotency.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    // Access-ordered LinkedHashMap = LRU; guarded by its own monitor
+    private final Map<String, StoredResponse> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    // Keys whose first request is still being processed on this instance (not shared across instances)
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository) {
+        this.recordRepository = recordRepository;
+    }
+
+    public record StoredResponse(String fingerprint, int status, String contentType, String body, LocalDateTime expiresAt) {
+        boolean isExpired() {
+            return expiresAt.isBefore(LocalDateTime.now());
+        }
+    }
+
+    // Keys are scoped per user, so two users can't collide on (or read) each other's key
+    public String keyFor(String user, String idempotencyKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((user + "\n" + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Optional<StoredResponse> find(String key) {
+        synchronized (cache) {
+            StoredResponse cached = cache.get(key);
+            if (cached != null) {
+                if (!cached.isExpired()) return Optional.of(cached);
+                cache.remove(key);
+            }
+        }
+
+        // ✅ Cache miss → durable copy (e.g. after a restart)
+        return recordRepository.findById(key)
+                .filter(r -> r.getExpiresAt().isAfter(LocalDateTime.now()))
+                .map(r -> {
+                    StoredResponse stored = new StoredResponse(r.getFingerprint(), r.getStatus(),
+                            r.getContentType(), r.getBody(), r.getExpiresAt());
+                    synchronized (cache) {
+                        cache.put(key, stored);
+                    }
+                    return stored;
+                });
+    }
+
+    public boolean tryBegin(String key) {
+        return inFlight.add(key);
+    }
+
+    public void end(String key) {
+        inFlight.remove(key);
+    }
+
+    public void store(String key, String fingerprint, int status, String contentType, String body) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(Duration.ofHours(ttlHours));
+
+        recordRepository.save(IdempotencyRecord.builder()
+                .id(key)
+                .fingerprint(fingerprint)
+                .status(status)
+                .contentType(contentType)
+                .body(body)
+                .createdAt(now)
+                .expiresAt(expiresAt)
+                .build());
+
+        synchronized (cache) {
+            cache.put(key, new StoredResponse(fingerprint, status, contentType, body, expiresAt));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        synchronized (cache) {
+            cache.values().removeIf(StoredResponse::isExpired);
+        }
+        int deleted = recordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            System.out.println("🧹 Removed " + deleted + " expired idempotency keys");
+        }
+    }
+}
@@ -1,35 +1,131 @@
 package com.docorbitbackend.services;
 
+import com.docorbitbackend.enums.Role;
+import com.docorbitbackend.models.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Issues and verifies JWTs.
+ * The signing key and the parser are built once at startup. A verified token's
+ * claims are kept in a small LRU keyed by the SHA-256 of the token until the
+ * token expires, so a client sending the same token on every request pays for
+ * one signature check, not one per request. Cache stats use the usual
+ * Micrometer names (cache.gets, cache.evictions, cache.size; cache=jwt-claims).
+ */
 @Service
 public class JwtService {
 
+    private static final String CACHE_NAME = "jwt-claims";
+
+    // Claims that let JwtAuthFilter build the principal without loading the user
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+
     // Secret key is read from application.properties instead of being generated on startup
     @Value("${jwt.secret}")
     private String secretKey;
 
-    // Token expiration in milliseconds (here: 24 hours)
-    private static final long EXPIRATION_TIME = 1000 * 60 * 60 * 24;
+    @Value("${jwt.claims-cache.max-entries:10000}")
+    private int maxCachedTokens;
+
+    // Access tokens are short-lived; sessions are renewed through /api/auth/refresh (RefreshTokenService)
+    @Value("${jwt.access-token-ttl-minutes:15}")
+    private long accessTokenTtlMinutes;
+
+    private final MeterRegistry meterRegistry;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private record VerifiedToken(Claims claims, long expiresAtMillis) {
+    }
+
+    // Access-ordered LinkedHashMap = LRU; guarded by its own monitor
+    private final Map<ByteBuffer, VerifiedToken> verified = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteBuffer, VerifiedToken> eldest) {
+            if (size() > maxCachedTokens) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // MessageDigest isn't thread-safe and is costly to look up per call
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
 
-    // Generate token with subject (username) and claims
-    public String generateToken(String username) {
+    public JwtService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+
+        Tags tags = Tags.of("cache", CACHE_NAME);
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags(tags).tag("result", "hit")
+                .description("Tokens whose claims were already verified")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags(tags).tag("result", "miss")
+                .description("Tokens that needed a signature check")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tags(tags)
+                .description("Verified tokens evicted because the cache was full")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, JwtService::cachedTokens)
+                .tags(tags)
+                .description("Verified tokens currently cached")
+                .register(meterRegistry);
+    }
+
+    // Generate token with subject (username), user id and roles
+    public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        String token = generateToken(claims, username);
-        System.out.println("🪶 Generated JWT for " + username + ": " + token);
-        return token;
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLES, user.getRoles() == null ? List.of()
+                : user.getRoles().stream().map(Role::name).sorted().toList());
+        return generateToken(claims, user.getUsername());
     }
 
 
@@ -39,48 +135,78 @@ public class JwtService {
                 .claims()
                 .add(extraClaims)
                 .subject(username)
+                .id(UUID.randomUUID().toString()) // jti, so a single token can be revoked
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .expiration(new Date(System.currentTimeMillis() + getTokenLifetimeMillis()))
                 .and()
-                .signWith(getKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    private SecretKey getKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public long getTokenLifetimeMillis() {
+        return accessTokenTtlMinutes * 60_000;
     }
 
-    // Extract username (subject) from token
-    public String extractUserName(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    /**
+     * Claims of a token whose signature checks out and which hasn't expired; null otherwise.
+     * Each distinct token is parsed and verified once, later calls come from the cache.
+     */
+    public Claims verify(String token) {
+        if (token == null || token.isBlank()) return null;
+        ByteBuffer digest = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        long now = System.currentTimeMillis();
 
-    // Extract generic claims
-    private <T> T extractClaim(String token, Function<Claims, T> claimResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimResolver.apply(claims);
+        synchronized (verified) {
+            VerifiedToken cached = verified.get(digest);
+            if (cached != null) {
+                if (cached.expiresAtMillis() > now) {
+                    hits.incrementAndGet();
+                    return cached.claims();
+                }
+                verified.remove(digest);
+            }
+        }
+        misses.incrementAndGet();
+
+        Claims claims;
+        try {
+            // Also rejects expired tokens
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            synchronized (verified) {
+                verified.put(digest, new VerifiedToken(claims, expiration.getTime()));
+            }
+        }
+        return claims;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    // Extract username (subject) from token; null if the token isn't valid
+    public String extractUserName(String token) {
+        Claims claims = verify(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
     // Validate token against user details
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(verify(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Same check on claims the caller already verified
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        return claims != null
+                && claims.getSubject() != null
+                && claims.getSubject().equals(userDetails.getUsername())
+                && claims.getExpiration() != null
+                && claims.getExpiration().after(new Date());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private double cachedTokens() {
+        synchronized (verified) {
+            return verified.size();
+        }
     }
 }
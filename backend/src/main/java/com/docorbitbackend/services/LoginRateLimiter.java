@@ -0,0 +1,141 @@
+package com.docorbitbackend.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory token buckets for login attempts, one per client IP and one per
+ * account name. A bucket holds up to {@code capacity} attempts and refills one
+ * attempt every {@code refillSeconds}; an empty bucket rejects the attempt
+ * before any database lookup or password hashing happens. Buckets that have
+ * refilled completely are indistinguishable from new ones and are dropped
+ * periodically, so memory tracks only recently active keys.
+ */
+@Service
+public class LoginRateLimiter {
+
+    public enum Scope { IP, ACCOUNT }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.login.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${auth.login.ip.refill-seconds:3}")
+    private double ipRefillSeconds;
+
+    @Value("${auth.login.account.capacity:5}")
+    private int accountCapacity;
+
+    @Value("${auth.login.account.refill-seconds:12}")
+    private double accountRefillSeconds;
+
+    private final Map<String, Bucket> ipBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> accountBuckets = new ConcurrentHashMap<>();
+
+    public LoginRateLimiter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    private static final class Bucket {
+        private final int capacity;
+        private final long nanosPerToken;
+        private double tokens;
+        private long lastRefill;
+
+        Bucket(int capacity, double refillSeconds) {
+            this.capacity = capacity;
+            this.nanosPerToken = (long) (refillSeconds * 1_000_000_000L);
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized boolean tryConsume() {
+            refill();
+            if (tokens < 1) return false;
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized boolean isFull() {
+            refill();
+            return tokens >= capacity;
+        }
+
+        // Seconds until the next attempt is allowed
+        synchronized long secondsUntilNext() {
+            refill();
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * nanosPerToken / 1e9);
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (double) (now - lastRefill) / nanosPerToken);
+            lastRefill = now;
+        }
+    }
+
+    /**
+     * Thrown when a bucket is empty; retryAfterSeconds is when the next attempt would pass.
+     */
+    public static class RateLimitedException extends RuntimeException {
+        private final Scope scope;
+        private final long retryAfterSeconds;
+
+        public RateLimitedException(Scope scope, long retryAfterSeconds) {
+            super("Too many login attempts, try again in " + retryAfterSeconds + "s");
+            this.scope = scope;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public Scope getScope() {
+            return scope;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("auth.login.buckets", ipBuckets, Map::size)
+                .tag("scope", "ip")
+                .description("Client IPs with recent login attempts")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.buckets", accountBuckets, Map::size)
+                .tag("scope", "account")
+                .description("Accounts with recent login attempts")
+                .register(meterRegistry);
+    }
+
+    // ✅ Takes one attempt from the IP's bucket, then from the account's; throws if either is empty
+    public void acquire(String clientIp, String account) {
+        take(Scope.IP, ipBuckets, clientIp == null ? "unknown" : clientIp, ipCapacity, ipRefillSeconds);
+        // Same account whether typed as "Alice" or "alice"
+        String accountKey = account == null ? "" : account.trim().toLowerCase(Locale.ROOT);
+        take(Scope.ACCOUNT, accountBuckets, accountKey, accountCapacity, accountRefillSeconds);
+    }
+
+    private void take(Scope scope, Map<String, Bucket> buckets, String key, int capacity, double refillSeconds) {
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, refillSeconds));
+        if (!bucket.tryConsume()) {
+            meterRegistry.counter("auth.login.rejected", "reason", scope == Scope.IP ? "rate_ip" : "rate_account").increment();
+            throw new RateLimitedException(scope, Math.max(1, bucket.secondsUntilNext()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.login.bucket-cleanup-interval-ms:60000}")
+    public void dropIdleBuckets() {
+        ipBuckets.values().removeIf(Bucket::isFull);
+        accountBuckets.values().removeIf(Bucket::isFull);
+    }
+}
@@ -0,0 +1,140 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.repositories.DoctorDayOccupancyRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.docorbitbackend.services.TransactionHooks.afterCommit;
+import static com.docorbitbackend.services.TransactionHooks.afterRollback;
+
+/**
+ * Per-doctor daily occupancy counters for the month heatmap.
+ * doctor_day_occupancy is updated with a single upsert inside every booking or
+ * cancellation transaction; whole months are cached here as int[31] so a
+ * month view is one map lookup. Committed changes are applied to cached
+ * months directly instead of evicting them.
+ */
+@Service
+public class OccupancyService {
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final DoctorDayOccupancyRepository occupancyRepository;
+
+    @Value("${occupancy.cache.max-months:5000}")
+    private int maxMonths;
+
+    // Access-ordered LinkedHashMap = LRU; guarded by its own monitor
+    private final Map<MonthKey, int[]> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<MonthKey, int[]> eldest) {
+            return size() > maxMonths;
+        }
+    };
+
+    // Bumped (under the cache monitor) when a change to a month of that stripe is enlisted and
+    // again when it commits; pending counts changes enlisted but not yet committed or rolled back.
+    // A load only caches if neither moved while it ran and nothing is pending, so a committed
+    // counter can't be counted twice (once by the query, once by the commit hook).
+    private final long[] generations = new long[GENERATION_STRIPES];
+    private final int[] pending = new int[GENERATION_STRIPES];
+
+    public OccupancyService(DoctorDayOccupancyRepository occupancyRepository) {
+        this.occupancyRepository = occupancyRepository;
+    }
+
+    private record MonthKey(long doctorId, YearMonth month) {
+        int stripe() {
+            return (hashCode() & 0x7fffffff) % GENERATION_STRIPES;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (occupancyRepository.count() == 0) {
+            int days = occupancyRepository.backfillFromAppointments();
+            System.out.println("📊 Occupancy counters backfilled for " + days + " doctor-days");
+        }
+    }
+
+    // ✅ Must be called inside the booking/cancelling transaction
+    public void recordBooked(Long doctorId, LocalDate date) {
+        adjust(doctorId, date, 1);
+    }
+
+    public void recordCancelled(Long doctorId, LocalDate date) {
+        adjust(doctorId, date, -1);
+    }
+
+    private void adjust(Long doctorId, LocalDate date, int delta) {
+        occupancyRepository.addToDay(doctorId, date, delta);
+
+        MonthKey key = new MonthKey(doctorId, YearMonth.from(date));
+        int stripe = key.stripe();
+        int dayIndex = date.getDayOfMonth() - 1;
+        synchronized (cache) {
+            generations[stripe]++;
+            pending[stripe]++;
+        }
+        afterCommit(() -> {
+            synchronized (cache) {
+                generations[stripe]++;
+                pending[stripe]--;
+                int[] days = cache.get(key);
+                if (days != null) {
+                    days[dayIndex] = Math.max(0, days[dayIndex] + delta);
+                }
+            }
+        });
+        afterRollback(() -> {
+            synchronized (cache) {
+                generations[stripe]++;
+                pending[stripe]--;
+            }
+        });
+    }
+
+    /**
+     * Booked-appointment count for every day of the month, keyed by date.
+     */
+    public Map<LocalDate, Integer> getMonth(Long doctorId, YearMonth month) {
+        MonthKey key = new MonthKey(doctorId, month);
+
+        int[] days;
+        long generation;
+        synchronized (cache) {
+            days = cache.get(key);
+            generation = generations[key.stripe()];
+            if (days != null) {
+                days = days.clone();
+            }
+        }
+
+        if (days == null) {
+            // ✅ Cache miss → at most 31 rows from uk_occupancy_doctor_day
+            days = new int[month.lengthOfMonth()];
+            List<Object[]> rows = occupancyRepository.findDays(doctorId, month.atDay(1), month.atEndOfMonth());
+            for (Object[] row : rows) {
+                days[((LocalDate) row[0]).getDayOfMonth() - 1] = (Integer) row[1];
+            }
+            synchronized (cache) {
+                if (generations[key.stripe()] == generation && pending[key.stripe()] == 0) {
+                    cache.put(key, days.clone());
+                }
+            }
+        }
+
+        Map<LocalDate, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < days.length; i++) {
+            result.put(month.atDay(i + 1), days[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,113 @@
+package com.docorbitbackend.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt password checks on a small dedicated pool with a bounded queue,
+ * so a burst of login attempts can use at most {@code threads} cores no matter
+ * how many request threads are waiting. When the queue is full the check is
+ * refused at once (BusyException) instead of piling up behind it.
+ */
+@Service
+public class PasswordHashingPool {
+
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+
+    // Half the cores by default, leaving the rest to regular traffic
+    @Value("${auth.login.hash-threads:0}")
+    private int threads;
+
+    @Value("${auth.login.hash-queue:64}")
+    private int queueCapacity;
+
+    @Value("${auth.login.hash-timeout-ms:5000}")
+    private long timeoutMillis;
+
+    private ThreadPoolExecutor pool;
+
+    // Hash of a random password, made with the live encoder so it has the same cost as a real one
+    private String dummyHash;
+
+    public PasswordHashingPool(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Thrown when the pool can't take (or finish) the check in time
+    public static class BusyException extends RuntimeException {
+        public BusyException(String message) {
+            super(message);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        pool = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+        Gauge.builder("auth.login.hash.queue", pool, p -> p.getQueue().size())
+                .description("Password checks waiting for a hashing thread")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        Future<Boolean> check;
+        try {
+            check = pool.submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("auth.login.rejected", "reason", "busy").increment();
+            throw new BusyException("Login is busy, try again shortly");
+        }
+        try {
+            return check.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            check.cancel(true);
+            meterRegistry.counter("auth.login.rejected", "reason", "timeout").increment();
+            throw new BusyException("Login is busy, try again shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            check.cancel(true);
+            throw new BusyException("Login interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password check failed", e.getCause());
+        }
+    }
+
+    /**
+     * Spends one full password check for a login name that matched no account, so an
+     * unknown account takes as long to reject as a wrong password (no account enumeration).
+     */
+    public void matchesNothing(String rawPassword) {
+        matches(rawPassword != null ? rawPassword : "", dummyHash);
+    }
+}
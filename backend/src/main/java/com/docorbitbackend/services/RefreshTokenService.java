@@ -0,0 +1,139 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.models.RefreshToken;
+import com.docorbitbackend.models.User;
+import com.docorbitbackend.repositories.RefreshTokenRepository;
+import com.docorbitbackend.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Rotating refresh tokens.
+ * The client gets a random opaque token; only its SHA-256 is stored. Renewing
+ * a session is one indexed lookup plus the insert of the successor, with no
+ * password check. A token can be used once: presenting an already used (or
+ * revoked) one means two parties hold it, so the whole family descending
+ * from that login is revoked, together with the user's live access tokens.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Value("${jwt.refresh-token-ttl-days:14}")
+    private long refreshTokenTtlDays;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               JwtService jwtService,
+                               TokenRevocationService tokenRevocationService) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.jwtService = jwtService;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    // A renewed session: new access token plus the refresh token that replaces the one presented
+    public record Session(User user, String accessToken, String refreshToken) {
+    }
+
+    // ✅ Starts a new family (called on login)
+    public String issue(User user) {
+        return issue(user.getId(), UUID.randomUUID().toString());
+    }
+
+    // Reuse detection revokes rows and must survive the 401 that follows
+    @Transactional(noRollbackFor = ResponseStatusException.class)
+    public Session rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token required");
+        }
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(hash(rawToken))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token"));
+        LocalDateTime now = LocalDateTime.now();
+
+        if (current.getUsedAt() != null || current.getRevokedAt() != null) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            userRepository.findById(current.getUserId())
+                    .ifPresent(user -> tokenRevocationService.revokeAllFor(user.getUsername()));
+            System.out.println("⚠️ Refresh token reuse detected for user " + current.getUserId() + ", session family revoked");
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token already used");
+        }
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token expired");
+        }
+
+        User user = userRepository.findById(current.getUserId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token"));
+
+        current.setUsedAt(now);
+        String successor = issue(user.getId(), current.getFamilyId());
+        return new Session(user, jwtService.generateToken(user), successor);
+    }
+
+    // Logout: the presented token's family can't be renewed any more
+    @Transactional
+    public void revoke(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) return;
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    // Password reset / log out everywhere
+    @Transactional
+    public void revokeAllFor(Long userId) {
+        refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-token-cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            System.out.println("🧹 Removed " + deleted + " expired refresh tokens");
+        }
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .userId(userId)
+                .createdAt(now)
+                .expiresAt(now.plusDays(refreshTokenTtlDays))
+                .build());
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
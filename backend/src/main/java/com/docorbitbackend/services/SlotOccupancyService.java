@@ -0,0 +1,256 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.repositories.AppointmentRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory slot occupancy index.
+ * Keeps one 64-bit bitmap per (doctor, day): bit i set means the i-th
+ * 30-minute slot of that day is taken. Built from the appointments table
+ * at startup and kept current by AppointmentService on every book/cancel,
+ * so availability lookups and conflict checks never hit the database.
+ * Bookings must start exactly on a slot (see {@link #checkBookable}), so a
+ * bit stands for exactly one appointment_time, the column the unique key is on.
+ * Days in the past are dropped nightly.
+ */
+@Service
+public class SlotOccupancyService {
+
+    // 48 slots of 30 minutes → a whole day fits in a single long
+    public static final int SLOT_MINUTES = 30;
+    public static final int SLOTS_PER_DAY = (24 * 60) / SLOT_MINUTES;
+
+    // Availability queries are capped so one request can't walk months of bitmaps
+    public static final int MAX_RANGE_DAYS = 31;
+
+    private final AppointmentRepository appointmentRepository;
+
+    private final Map<DayKey, AtomicLong> occupancy = new ConcurrentHashMap<>();
+
+    // Striped (doctor, day) locks: bookings for different doctors/days rarely share a stripe,
+    // so throughput scales with the number of distinct doctors instead of one global lock
+    private static final int LOCK_STRIPES = 256;
+    private final Lock[] stripes = new Lock[LOCK_STRIPES];
+
+    @Value("${appointments.opening-time:09:00}")
+    private String openingTimeProperty;
+
+    @Value("${appointments.closing-time:17:00}")
+    private String closingTimeProperty;
+
+    private int firstBookableSlot;
+    private int lastBookableSlot; // exclusive
+
+    public SlotOccupancyService(AppointmentRepository appointmentRepository) {
+        this.appointmentRepository = appointmentRepository;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        firstBookableSlot = slotOf(LocalTime.parse(openingTimeProperty));
+        lastBookableSlot = slotOf(LocalTime.parse(closingTimeProperty));
+
+        // ✅ Rows from before active_slot existed are NULL, which the unique key ignores
+        int backfilled = appointmentRepository.backfillActiveSlots();
+        if (backfilled > 0) {
+            System.out.println("🔧 Backfilled active_slot on " + backfilled + " existing appointments");
+        }
+        long unguarded = appointmentRepository.countLiveWithoutActiveSlot();
+        if (unguarded > 0) {
+            System.err.println("⚠️ " + unguarded + " live appointments share their slot with an earlier booking "
+                    + "(double-booked before the unique key existed); cancel or move them");
+        }
+
+        // ✅ Only active, upcoming bookings matter for availability
+        List<Object[]> rows = appointmentRepository.findActiveSlotsFrom(LocalDate.now());
+        for (Object[] row : rows) {
+            markOccupied((Long) row[0], (LocalDate) row[1], (LocalTime) row[2]);
+        }
+        System.out.println("📅 Slot occupancy index built from " + rows.size() + " active appointments");
+    }
+
+    // Slot index for a time of day (times inside a slot map to the slot start)
+    public static int slotOf(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    public static LocalTime slotStart(int slot) {
+        return LocalTime.MIDNIGHT.plusMinutes((long) slot * SLOT_MINUTES);
+    }
+
+    /**
+     * Why an appointment can't start at this date and time, or null if it can: it must
+     * start on a slot boundary, inside opening hours, and in the future.
+     */
+    public String checkBookable(LocalDate date, LocalTime time) {
+        if (time.getSecond() != 0 || time.getNano() != 0 || time.getMinute() % SLOT_MINUTES != 0) {
+            return "Appointments start on the " + SLOT_MINUTES + "-minute slot grid";
+        }
+        int slot = slotOf(time);
+        if (slot < firstBookableSlot || slot >= lastBookableSlot) {
+            return "Time is outside opening hours (" + slotStart(firstBookableSlot) + "-" + slotStart(lastBookableSlot) + ")";
+        }
+        if (!LocalDateTime.of(date, time).isAfter(LocalDateTime.now())) {
+            return "This time slot is in the past";
+        }
+        return null;
+    }
+
+    // Slots between opening and closing time, i.e. a doctor's daily capacity
+    public int getBookableSlotsPerDay() {
+        return lastBookableSlot - firstBookableSlot;
+    }
+
+    public Lock lockFor(Long doctorId, LocalDate date) {
+        return stripes[stripeOf(doctorId, date)];
+    }
+
+    /**
+     * Locks for several (doctor, day) pairs, deduplicated and in stripe order so that
+     * concurrent multi-slot bookings can't deadlock each other.
+     */
+    public List<Lock> locksFor(Collection<Map.Entry<Long, LocalDate>> doctorDays) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Map.Entry<Long, LocalDate> doctorDay : doctorDays) {
+            indexes.add(stripeOf(doctorDay.getKey(), doctorDay.getValue()));
+        }
+        List<Lock> locks = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            locks.add(stripes[index]);
+        }
+        return locks;
+    }
+
+    private int stripeOf(Long doctorId, LocalDate date) {
+        int hash = new DayKey(doctorId, date).hashCode();
+        hash ^= (hash >>> 16);
+        return hash & (LOCK_STRIPES - 1);
+    }
+
+    /**
+     * Atomically claims the slot. Returns false if it was already taken.
+     */
+    public boolean tryReserve(Long doctorId, LocalDate date, LocalTime time) {
+        long bit = 1L << slotOf(time);
+        AtomicLong day = occupancy.computeIfAbsent(new DayKey(doctorId, date), k -> new AtomicLong());
+        while (true) {
+            long current = day.get();
+            if ((current & bit) != 0) {
+                return false;
+            }
+            if (day.compareAndSet(current, current | bit)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(Long doctorId, LocalDate date, LocalTime time) {
+        AtomicLong day = occupancy.get(new DayKey(doctorId, date));
+        if (day != null) {
+            long bit = 1L << slotOf(time);
+            day.getAndUpdate(current -> current & ~bit);
+        }
+    }
+
+    public boolean isOccupied(Long doctorId, LocalDate date, LocalTime time) {
+        AtomicLong day = occupancy.get(new DayKey(doctorId, date));
+        return day != null && (day.get() & (1L << slotOf(time))) != 0;
+    }
+
+    /**
+     * Free bookable slots per day for [from, to], read purely from the bitmaps.
+     */
+    public Map<LocalDate, List<LocalTime>> getFreeSlots(Long doctorId, LocalDate from, LocalDate to) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<LocalDate, List<LocalTime>> result = new LinkedHashMap<>();
+
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            AtomicLong day = occupancy.get(new DayKey(doctorId, date));
+            long taken = day == null ? 0L : day.get();
+
+            int firstSlot = firstBookableSlot;
+            if (date.equals(now.toLocalDate())) {
+                // Skip slots that have already started today
+                firstSlot = Math.max(firstSlot, slotOf(now.toLocalTime()) + 1);
+            } else if (date.isBefore(now.toLocalDate())) {
+                firstSlot = lastBookableSlot;
+            }
+
+            List<LocalTime> free = new ArrayList<>();
+            for (int slot = firstSlot; slot < lastBookableSlot; slot++) {
+                if ((taken & (1L << slot)) == 0) {
+                    free.add(slotStart(slot));
+                }
+            }
+            result.put(date, free);
+        }
+        return result;
+    }
+
+    /**
+     * Start of the first free bookable slot on or after {@code from}, looking at most
+     * {@code days} days ahead; null if the doctor is fully booked for that whole stretch.
+     */
+    public LocalDateTime nextFreeSlot(Long doctorId, LocalDate from, int days) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        int nowSlot = slotOf(now.toLocalTime()) + 1;
+        for (LocalDate date = from.isBefore(today) ? today : from; days-- > 0; date = date.plusDays(1)) {
+            int firstSlot = date.equals(today) ? Math.max(firstBookableSlot, nowSlot) : firstBookableSlot;
+            if (firstSlot >= lastBookableSlot) continue;
+
+            AtomicLong day = occupancy.get(new DayKey(doctorId, date));
+            long taken = day == null ? 0L : day.get();
+            // Bits firstSlot..lastBookableSlot-1 that are not taken; the lowest one is the answer
+            long bookable = (lastBookableSlot >= 64 ? -1L : (1L << lastBookableSlot) - 1) & (-1L << firstSlot);
+            long free = bookable & ~taken;
+            if (free != 0) {
+                return LocalDateTime.of(date, slotStart(Long.numberOfTrailingZeros(free)));
+            }
+        }
+        return null;
+    }
+
+    // Used when the database reports the slot as taken (e.g. booked through another instance)
+    public void markOccupied(Long doctorId, LocalDate date, LocalTime time) {
+        if (doctorId == null || date == null || time == null) return;
+        long bit = 1L << slotOf(time);
+        occupancy.computeIfAbsent(new DayKey(doctorId, date), k -> new AtomicLong())
+                .getAndUpdate(current -> current | bit);
+    }
+
+    // Past days can't be booked or shown any more; without this the map grows by a day per doctor daily
+    @Scheduled(cron = "${appointments.occupancy-prune-cron:0 10 0 * * *}")
+    public void dropPastDays() {
+        LocalDate today = LocalDate.now();
+        int before = occupancy.size();
+        occupancy.keySet().removeIf(key -> key.date().isBefore(today));
+        int dropped = before - occupancy.size();
+        if (dropped > 0) {
+            System.out.println("🧹 Dropped " + dropped + " past doctor-days from the slot occupancy index");
+        }
+    }
+
+    private record DayKey(long doctorId, LocalDate date) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.models.Specialization;
+import com.docorbitbackend.repositories.SpecializationRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import static com.docorbitbackend.services.TransactionHooks.afterCommit;
+
+/**
+ * Preloaded, immutable view of the specializations table.
+ * The list is tiny and rarely changes, so readers get a snapshot that is
+ * never modified; SpecializationIndexListener swaps in a new one after each
+ * committed change. Name lookups go through a map ordered by
+ * String.CASE_INSENSITIVE_ORDER, which compares char by char and so needs no
+ * lower-cased copy of the name per call.
+ */
+@Service
+public class SpecializationCatalog {
+
+    private final SpecializationRepository specializationRepository;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.of(List.of()));
+
+    public SpecializationCatalog(SpecializationRepository specializationRepository) {
+        this.specializationRepository = specializationRepository;
+    }
+
+    private record Snapshot(List<Specialization> all, NavigableMap<String, Specialization> byName) {
+
+        static Snapshot of(List<Specialization> specializations) {
+            List<Specialization> all = new ArrayList<>(specializations.size());
+            TreeMap<String, Specialization> byName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (Specialization specialization : specializations) {
+                // Own copies, so callers can't change what other requests see
+                Specialization copy = new Specialization(specialization.getId(), specialization.getName());
+                all.add(copy);
+                byName.putIfAbsent(copy.getName(), copy);
+            }
+            all.sort(Comparator.comparing(Specialization::getId));
+            return new Snapshot(Collections.unmodifiableList(all), Collections.unmodifiableNavigableMap(byName));
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        current.set(Snapshot.of(specializationRepository.findAll()));
+        System.out.println("🏷️ Specialization catalog loaded: " + current.get().all().size() + " entries");
+    }
+
+    public List<Specialization> getAll() {
+        return current.get().all();
+    }
+
+    public Specialization findByName(String name) {
+        return name == null ? null : current.get().byName().get(name.trim());
+    }
+
+    /**
+     * The specialization with this name (any case), created if it doesn't exist yet.
+     * Only a name not seen before goes to the database.
+     */
+    public Specialization getOrCreate(String name) {
+        Specialization known = findByName(name);
+        if (known != null) return known;
+
+        String trimmed = name.trim();
+        // May have been added by another instance since our snapshot was built
+        return specializationRepository.findByNameIgnoreCase(trimmed)
+                .orElseGet(() -> {
+                    System.out.println("✨ Adding new specialization: " + trimmed);
+                    Specialization created = new Specialization();
+                    created.setName(trimmed);
+                    return specializationRepository.save(created);
+                });
+    }
+
+    // ✅ Called by SpecializationIndexListener; the new snapshot is published once the change is committed
+    public void specializationSaved(Specialization specialization) {
+        Specialization copy = new Specialization(specialization.getId(), specialization.getName());
+        afterCommit(() -> swap(all -> {
+            List<Specialization> next = new ArrayList<>(all.size() + 1);
+            for (Specialization existing : all) {
+                if (!existing.getId().equals(copy.getId())) next.add(existing);
+            }
+            next.add(copy);
+            return next;
+        }));
+    }
+
+    public void specializationRemoved(Long id) {
+        afterCommit(() -> swap(all -> all.stream().filter(s -> !s.getId().equals(id)).toList()));
+    }
+
+    private void swap(UnaryOperator<List<Specialization>> change) {
+        current.updateAndGet(snapshot -> Snapshot.of(change.apply(snapshot.all())));
+    }
+}
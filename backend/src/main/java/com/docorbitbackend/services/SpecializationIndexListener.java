@@ -0,0 +1,40 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.models.Specialization;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// JPA entity listener on Specialization: keeps the autocomplete trie, the specialization catalog and the catalog version current
+@Component
+public class SpecializationIndexListener {
+
+    private final ObjectProvider<AutocompleteIndex> autocompleteIndex;
+    private final ObjectProvider<SpecializationCatalog> specializationCatalog;
+    private final ObjectProvider<CatalogVersion> catalogVersion;
+
+    public SpecializationIndexListener(ObjectProvider<AutocompleteIndex> autocompleteIndex,
+                                       ObjectProvider<SpecializationCatalog> specializationCatalog,
+                                       ObjectProvider<CatalogVersion> catalogVersion) {
+        this.autocompleteIndex = autocompleteIndex;
+        this.specializationCatalog = specializationCatalog;
+        this.catalogVersion = catalogVersion;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Specialization specialization) {
+        autocompleteIndex.getObject().specializationSaved(specialization);
+        specializationCatalog.getObject().specializationSaved(specialization);
+        catalogVersion.getObject().changed();
+    }
+
+    @PostRemove
+    public void onRemoved(Specialization specialization) {
+        autocompleteIndex.getObject().removed(AutocompleteIndex.Type.SPECIALIZATION, specialization.getId());
+        specializationCatalog.getObject().specializationRemoved(specialization.getId());
+        catalogVersion.getObject().changed();
+    }
+}
@@ -0,0 +1,223 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.models.RevokedToken;
+import com.docorbitbackend.models.TokenRevocationCutoff;
+import com.docorbitbackend.repositories.RevokedTokenRepository;
+import com.docorbitbackend.repositories.TokenRevocationCutoffRepository;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.docorbitbackend.services.TransactionHooks.afterCommit;
+
+/**
+ * Server-side token revocation.
+ * Two kinds, both stored in the database: a single token by its jti (logout),
+ * and every token of a user issued up to a given second (log out everywhere,
+ * password reset). The hot path never queries: jtis are checked against an
+ * in-memory Bloom filter, and only a filter hit looks at the exact set behind
+ * it; per-user cutoffs are a plain map lookup. Both are rebuilt from the
+ * database at startup and on every refresh, which also drops revocations of
+ * tokens that have expired since (and picks up revocations made by other
+ * instances).
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final int BLOOM_HASHES = 7;
+    private static final int BLOOM_BITS_PER_ENTRY = 16; // ~0.1% false positives with 7 hashes
+    private static final int BLOOM_MIN_BITS = 1 << 16;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TokenRevocationCutoffRepository cutoffRepository;
+    private final JwtService jwtService;
+
+    private final Object swapLock = new Object();
+    private volatile Denylist denylist = new Denylist(0);
+    // username → tokens issued at or before this epoch second are revoked
+    private volatile Map<String, Long> cutoffs = new ConcurrentHashMap<>();
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  TokenRevocationCutoffRepository cutoffRepository,
+                                  JwtService jwtService) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.cutoffRepository = cutoffRepository;
+        this.jwtService = jwtService;
+    }
+
+    // Bloom filter over revoked jtis plus the exact set it stands in front of
+    private static final class Denylist {
+        final AtomicLongArray bits;
+        final int mask;
+        final Map<String, Long> expiresAtMillis = new ConcurrentHashMap<>();
+
+        Denylist(int expectedEntries) {
+            int wanted = Math.max(BLOOM_MIN_BITS, expectedEntries * BLOOM_BITS_PER_ENTRY);
+            int size = Integer.highestOneBit(Math.min(wanted, 1 << 30) - 1) << 1;
+            bits = new AtomicLongArray(size >>> 6);
+            mask = size - 1;
+        }
+
+        void add(String jti, long expiresAt) {
+            expiresAtMillis.put(jti, expiresAt);
+            long hash = hash64(jti);
+            int h1 = (int) hash, h2 = (int) (hash >>> 32);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                long flag = 1L << bit;
+                bits.getAndAccumulate(bit >>> 6, flag, (word, f) -> word | f);
+            }
+        }
+
+        boolean contains(String jti) {
+            long hash = hash64(jti);
+            int h1 = (int) hash, h2 = (int) (hash >>> 32);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) return false;
+            }
+            // Possible hit; the exact set decides
+            return expiresAtMillis.containsKey(jti);
+        }
+
+        // FNV-1a over the chars, then the MurmurHash3 finalizer to spread the bits
+        private static long hash64(String value) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        refresh();
+        System.out.println("🚫 Token denylist loaded: " + denylist.expiresAtMillis.size()
+                + " revoked tokens, " + cutoffs.size() + " user cutoffs");
+    }
+
+    // ✅ Hot path (JwtAuthFilter): memory only
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        if (jti != null && denylist.contains(jti)) return true;
+
+        Map<String, Long> current = cutoffs;
+        if (current.isEmpty()) return false;
+        Long cutoff = current.get(claims.getSubject());
+        Date issuedAt = claims.getIssuedAt();
+        // Tokens without iat can't prove they were issued after the cutoff
+        return cutoff != null && (issuedAt == null || issuedAt.getTime() / 1000 <= cutoff);
+    }
+
+    // Revoke one token (logout)
+    @Transactional
+    public void revoke(Claims claims) {
+        if (claims.getId() == null) {
+            // Issued before tokens carried a jti; the only way to kill it is a cutoff
+            revokeAllFor(claims.getSubject());
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = toLocal(claims.getExpiration() != null ? claims.getExpiration().getTime()
+                : System.currentTimeMillis() + jwtService.getTokenLifetimeMillis());
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(claims.getId())
+                .username(claims.getSubject())
+                .expiresAt(expiresAt)
+                .revokedAt(now)
+                .build());
+
+        String jti = claims.getId();
+        long expiresAtMillis = toMillis(expiresAt);
+        afterCommit(() -> {
+            synchronized (swapLock) {
+                denylist.add(jti, expiresAtMillis);
+            }
+        });
+    }
+
+    /**
+     * Revoke every token of the user issued up to now. JWT issue times have whole-second
+     * precision, so a token issued later within the same second is revoked as well.
+     */
+    @Transactional
+    public void revokeAllFor(String username) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        cutoffRepository.save(TokenRevocationCutoff.builder()
+                .username(username)
+                .revokedBefore(LocalDateTime.ofInstant(now, ZoneId.systemDefault()))
+                .expiresAt(LocalDateTime.ofInstant(now.plusMillis(jwtService.getTokenLifetimeMillis()), ZoneId.systemDefault()))
+                .build());
+
+        long cutoff = now.getEpochSecond();
+        afterCommit(() -> {
+            synchronized (swapLock) {
+                cutoffs.merge(username, cutoff, Math::max);
+            }
+        });
+    }
+
+    // Drops revocations of tokens that have expired since and rebuilds the filter from the database
+    @Scheduled(initialDelayString = "${auth.revocation.refresh-interval-ms:60000}",
+            fixedDelayString = "${auth.revocation.refresh-interval-ms:60000}")
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.deleteExpired(now);
+        cutoffRepository.deleteExpired(now);
+
+        var rows = revokedTokenRepository.findActive(now);
+        var activeCutoffs = cutoffRepository.findByExpiresAtAfter(now);
+
+        synchronized (swapLock) {
+            long nowMillis = System.currentTimeMillis();
+            Denylist previous = denylist;
+            Denylist rebuilt = new Denylist(rows.size() + previous.expiresAtMillis.size());
+            for (Object[] row : rows) {
+                rebuilt.add((String) row[0], toMillis((LocalDateTime) row[1]));
+            }
+            // Revocations committed here after the query ran are only in memory so far
+            previous.expiresAtMillis.forEach((jti, expiresAt) -> {
+                if (expiresAt > nowMillis) rebuilt.add(jti, expiresAt);
+            });
+
+            Map<String, Long> rebuiltCutoffs = new ConcurrentHashMap<>();
+            for (TokenRevocationCutoff cutoff : activeCutoffs) {
+                rebuiltCutoffs.merge(cutoff.getUsername(),
+                        cutoff.getRevokedBefore().atZone(ZoneId.systemDefault()).toEpochSecond(), Math::max);
+            }
+            long oldestLiveIssue = (nowMillis - jwtService.getTokenLifetimeMillis()) / 1000;
+            cutoffs.forEach((username, cutoff) -> {
+                if (cutoff >= oldestLiveIssue) rebuiltCutoffs.merge(username, cutoff, Math::max);
+            });
+
+            denylist = rebuilt;
+            cutoffs = rebuiltCutoffs;
+        }
+    }
+
+    private static LocalDateTime toLocal(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -4,7 +4,6 @@ import com.docorbitbackend.enums.Gender;
 import com.docorbitbackend.enums.Role;
 import com.docorbitbackend.models.Specialization;
 import com.docorbitbackend.models.User;
-import com.docorbitbackend.repositories.SpecializationRepository;
 import com.docorbitbackend.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,6 +17,7 @@ import com.docorbitbackend.repositories.ClinicRepository;
 import com.docorbitbackend.repositories.DoctorRepository;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
 
 @Service
@@ -37,7 +37,14 @@ public class UserService {
 
     @Autowired private DoctorRepository doctorRepository;
     @Autowired private ClinicRepository clinicRepository;
-    @Autowired private SpecializationRepository specializationRepository;
+    @Autowired private SpecializationCatalog specializationCatalog;
+    @Autowired private LoginRateLimiter loginRateLimiter;
+    @Autowired private PasswordHashingPool passwordHashingPool;
+    @Autowired private RefreshTokenService refreshTokenService;
+
+    // Outcome of a successful login: the user (for the response body), its access token and a refresh token
+    public record LoginResult(User user, String token, String refreshToken) {
+    }
 
     // ================== Registration ==================
     public String registerUser(
@@ -89,17 +96,8 @@ public class UserService {
                 }
             } catch (Exception ignored) {}
 
-            final String finalSpecName = specializationName; // ✅ fix for lambda scope
-
-            // ✅ Fetch or create specialization dynamically
-            Specialization specialization = specializationRepository
-                    .findByNameIgnoreCase(finalSpecName)
-                    .orElseGet(() -> {
-                        System.out.println("✨ Adding new specialization: " + finalSpecName);
-                        Specialization newSpec = new Specialization();
-                        newSpec.setName(finalSpecName);
-                        return specializationRepository.save(newSpec);
-                    });
+            // ✅ Fetch or create specialization (served from the preloaded catalog unless it's new)
+            Specialization specialization = specializationCatalog.getOrCreate(specializationName);
 
             // ✅ Create clinic
             Clinic clinic = new Clinic();
@@ -129,25 +127,34 @@ public class UserService {
 
 
 
-    public String verifyUser(String usernameOrEmail, String password) {
+    public LoginResult login(String usernameOrEmail, String password, String clientIp) {
         System.out.println("🔐 Attempting login for: " + usernameOrEmail);
 
-        // Load the user manually so we can handle both email and username
-        User user = userRepository.findByUsername(usernameOrEmail)
-                .orElseGet(() -> userRepository.findByEmail(usernameOrEmail)
-                        .orElseThrow(() ->
-                                new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials")));
+        // ✅ Rate limits first: a rejected attempt costs no query and no hashing
+        loginRateLimiter.acquire(clientIp, usernameOrEmail);
+
+        // Load the user manually so we can handle both email and username (one query)
+        List<User> candidates = userRepository.findForLogin(usernameOrEmail);
+        User user = candidates.stream()
+                .filter(u -> usernameOrEmail.equals(u.getUsername()))
+                .findFirst()
+                .orElse(candidates.isEmpty() ? null : candidates.get(0));
+        if (user == null) {
+            // Same hashing cost as a wrong password, so timing doesn't tell which accounts exist
+            passwordHashingPool.matchesNothing(password);
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
+        }
 
-        // Check password manually since we're bypassing default auth provider
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        // Check password manually since we're bypassing default auth provider; BCrypt runs on its own bounded pool
+        if (!passwordHashingPool.matches(password, user.getPassword())) {
             System.out.println("❌ Invalid password for: " + usernameOrEmail);
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
         }
 
         // ✅ Generate JWT
-        String token = jwtService.generateToken(user.getUsername());
+        String token = jwtService.generateToken(user);
         System.out.println("✅ Login successful for user: " + user.getUsername());
-        return token;
+        return new LoginResult(user, token, refreshTokenService.issue(user));
     }
 
 
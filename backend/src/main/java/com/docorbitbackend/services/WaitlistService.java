@@ -0,0 +1,243 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.enums.AppointmentStatus;
+import com.docorbitbackend.enums.WaitlistStatus;
+import com.docorbitbackend.models.Appointment;
+import com.docorbitbackend.models.Doctor;
+import com.docorbitbackend.models.User;
+import com.docorbitbackend.models.WaitlistEntry;
+import com.docorbitbackend.repositories.AppointmentRepository;
+import com.docorbitbackend.repositories.WaitlistEntryRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static com.docorbitbackend.services.TransactionHooks.afterCommit;
+import static com.docorbitbackend.services.TransactionHooks.afterRollback;
+
+/**
+ * Waitlist engine.
+ * One ordered queue per doctor ("doctor:42") and per specialization
+ * ("spec:cardiology"), first come first served. Queues are skip lists, so
+ * join, leave and taking the head are O(log n). WAITING rows in
+ * waitlist_entries are loaded back into the queues at startup.
+ */
+@Service
+public class WaitlistService {
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    private final Map<String, NavigableSet<Waiter>> queues = new ConcurrentHashMap<>();
+
+    public WaitlistService(WaitlistEntryRepository waitlistRepository, AppointmentRepository appointmentRepository) {
+        this.waitlistRepository = waitlistRepository;
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    // In-memory view of a WAITING entry; ordered by join time, then id
+    record Waiter(long id, long patientId, String queue, LocalDate from, LocalDate to, LocalDateTime createdAt) {
+
+        static final Comparator<Waiter> ORDER =
+                Comparator.comparing(Waiter::createdAt).thenComparingLong(Waiter::id);
+
+        boolean accepts(LocalDate date) {
+            return (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        List<Object[]> rows = waitlistRepository.findQueueRowsByStatus(WaitlistStatus.WAITING);
+        for (Object[] row : rows) {
+            String queue = row[2] != null ? doctorQueue((Long) row[2]) : specializationQueue((String) row[3]);
+            queue(queue).add(new Waiter((Long) row[0], (Long) row[1], queue,
+                    (LocalDate) row[4], (LocalDate) row[5], (LocalDateTime) row[6]));
+        }
+        System.out.println("⏳ Waitlist loaded: " + rows.size() + " waiting patients in " + queues.size() + " queues");
+    }
+
+    @Transactional
+    public WaitlistEntry join(User patient, Long doctorId, String specialization, LocalDate from, LocalDate to) {
+        boolean hasDoctor = doctorId != null;
+        boolean hasSpecialization = specialization != null && !specialization.isBlank();
+        if (hasDoctor == hasSpecialization) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide either a doctorId or a specialization");
+        }
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'to' must not be before 'from'");
+        }
+
+        WaitlistEntry entry = waitlistRepository.save(WaitlistEntry.builder()
+                .patient(patient)
+                .doctorId(hasDoctor ? doctorId : null)
+                .specialization(hasSpecialization ? specialization.trim() : null)
+                .fromDate(from)
+                .toDate(to)
+                .status(WaitlistStatus.WAITING)
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        String queue = hasDoctor ? doctorQueue(doctorId) : specializationQueue(specialization);
+        Waiter waiter = new Waiter(entry.getId(), patient.getId(), queue, from, to, entry.getCreatedAt());
+        afterCommit(() -> queue(queue).add(waiter));
+        return entry;
+    }
+
+    @Transactional
+    public WaitlistEntry leave(Long entryId, Long patientId) {
+        WaitlistEntry entry = waitlistRepository.findById(entryId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Waitlist entry not found"));
+        if (!entry.getPatient().getId().equals(patientId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You cannot remove this waitlist entry");
+        }
+        if (entry.getStatus() != WaitlistStatus.WAITING) {
+            return entry;
+        }
+
+        entry.setStatus(WaitlistStatus.CANCELLED);
+        String queue = entry.getDoctorId() != null
+                ? doctorQueue(entry.getDoctorId()) : specializationQueue(entry.getSpecialization());
+        Waiter waiter = new Waiter(entry.getId(), patientId, queue, entry.getFromDate(), entry.getToDate(), entry.getCreatedAt());
+        afterCommit(() -> queue(queue).remove(waiter));
+        return waitlistRepository.save(entry);
+    }
+
+    @Transactional(readOnly = true)
+    public List<WaitlistEntry> getEntriesForPatient(Long patientId) {
+        return waitlistRepository.findByPatientIdOrderByCreatedAtDesc(patientId);
+    }
+
+    public int queueLength(Long doctorId) {
+        NavigableSet<Waiter> queue = queues.get(doctorQueue(doctorId));
+        return queue == null ? 0 : queue.size();
+    }
+
+    // Drop waiters whose date window is over, in the table and in the queues
+    @Scheduled(cron = "${waitlist.expire-cron:0 5 0 * * *}")
+    public void expireStale() {
+        LocalDate today = LocalDate.now();
+        int expired = waitlistRepository.expireBefore(today);
+        queues.values().forEach(q -> q.removeIf(w -> w.to() != null && w.to().isBefore(today)));
+        if (expired > 0) {
+            System.out.println("⌛ Expired " + expired + " waitlist entries");
+        }
+    }
+
+    /**
+     * Hands a just-cancelled slot to the longest-waiting patient whose window fits,
+     * looking at the doctor's own queue and the doctor's specialization queue.
+     * Patients who already have an appointment at that date and time are passed
+     * over (they keep their place in the queue).
+     * Must run inside the cancelling transaction: the new appointment and the
+     * waitlist update commit (or roll back) together with the cancellation.
+     */
+    public Optional<Appointment> assignFreedSlot(Appointment cancelled) {
+        Doctor doctor = cancelled.getDoctor();
+        LocalDate date = cancelled.getAppointmentDate();
+        LocalTime time = cancelled.getAppointmentTime();
+        // A slot whose time has already passed can't be handed to anyone
+        LocalDate today = LocalDate.now();
+        if (date.isBefore(today) || (date.equals(today) && !time.isAfter(LocalTime.now()))) {
+            return Optional.empty();
+        }
+
+        NavigableSet<Waiter> doctorWaiters = queues.get(doctorQueue(doctor.getId()));
+        NavigableSet<Waiter> specializationWaiters = doctor.getSpecialization() == null ? null
+                : queues.get(specializationQueue(doctor.getSpecialization()));
+
+        Set<Long> passedOver = new HashSet<>();
+        passedOver.add(cancelled.getPatient().getId());
+
+        // Every round re-picks the earliest fitting waiter over both queues; each round either
+        // assigns the slot or takes one waiter out of consideration, so the loop ends
+        Waiter waiter;
+        while ((waiter = earliest(firstFitting(doctorWaiters, date, passedOver),
+                firstFitting(specializationWaiters, date, passedOver))) != null) {
+            if (appointmentRepository.patientHasAppointmentAt(waiter.patientId(), date, time)) {
+                passedOver.add(waiter.patientId());
+                continue;
+            }
+
+            NavigableSet<Waiter> queue = queue(waiter.queue());
+            if (queue.remove(waiter)) {
+                Waiter taken = waiter;
+                afterRollback(() -> queue.add(taken));
+
+                WaitlistEntry entry = waitlistRepository.findById(waiter.id()).orElse(null);
+                if (entry != null && entry.getStatus() == WaitlistStatus.WAITING) {
+                    return Optional.of(assign(entry, cancelled));
+                }
+            }
+            // Stale or raced away: it's out of the queue now, so the next round skips it
+        }
+        return Optional.empty();
+    }
+
+    private Appointment assign(WaitlistEntry entry, Appointment freed) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(freed.getDoctor());
+        appointment.setPatient(entry.getPatient());
+        appointment.setClinic(freed.getClinic());
+        appointment.setAppointmentDate(freed.getAppointmentDate());
+        appointment.setAppointmentTime(freed.getAppointmentTime());
+        appointment.setStatus(AppointmentStatus.PENDING);
+        appointment.setActiveSlot(true);
+        Appointment saved = appointmentRepository.save(appointment);
+
+        entry.setStatus(WaitlistStatus.ASSIGNED);
+        entry.setAppointmentId(saved.getId());
+        waitlistRepository.save(entry);
+
+        System.out.println("⏩ Freed slot " + freed.getAppointmentDate() + " " + freed.getAppointmentTime()
+                + " assigned to waitlist entry " + entry.getId());
+        return saved;
+    }
+
+    // Walks the whole queue: a fitting waiter is found however many earlier ones don't fit.
+    // In memory and once per cancellation, so the walk is cheap next to the transaction around it
+    private Waiter firstFitting(NavigableSet<Waiter> queue, LocalDate date, Set<Long> excludedPatientIds) {
+        if (queue == null) return null;
+        for (Waiter waiter : queue) {
+            if (waiter.accepts(date) && !excludedPatientIds.contains(waiter.patientId())) {
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    private static Waiter earliest(Waiter a, Waiter b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return Waiter.ORDER.compare(a, b) <= 0 ? a : b;
+    }
+
+    private NavigableSet<Waiter> queue(String key) {
+        return queues.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>(Waiter.ORDER));
+    }
+
+    private static String doctorQueue(Long doctorId) {
+        return "doctor:" + doctorId;
+    }
+
+    private static String specializationQueue(String specialization) {
+        return "spec:" + specialization.trim().toLowerCase(Locale.ROOT);
+    }
+}
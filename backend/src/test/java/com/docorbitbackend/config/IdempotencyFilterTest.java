@@ -0,0 +1,78 @@
+package com.docorbitbackend.config;
+
+import com.docorbitbackend.services.IdempotencyService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyFilterTest {
+
+    private final IdempotencyService idempotencyService = mock(IdempotencyService.class);
+    private final IdempotencyFilter filter = new IdempotencyFilter(idempotencyService);
+
+    private MockHttpServletRequest request;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void setUp() {
+        when(idempotencyService.keyFor(anyString(), anyString())).thenReturn("anonymous:key-1");
+        when(idempotencyService.find("anonymous:key-1")).thenReturn(Optional.empty());
+        when(idempotencyService.tryBegin("anonymous:key-1")).thenReturn(true);
+
+        request = new MockHttpServletRequest("POST", "/api/appointments/book");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "key-1");
+        request.setContentType("application/json");
+        request.setContent("{\"doctorId\":1}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writtenResponseIsStored() throws Exception {
+        filter.doFilter(request, response, (req, res) -> {
+            ((HttpServletResponse) res).setStatus(201);
+            res.setContentType("application/json");
+            res.getWriter().write("{\"id\":7}");
+        });
+
+        verify(idempotencyService).store(eq("anonymous:key-1"), anyString(), eq(201),
+                eq("application/json"), eq("{\"id\":7}"));
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":7}");
+        verify(idempotencyService).end("anonymous:key-1");
+    }
+
+    @Test
+    void sendErrorResponseIsNotStored() throws Exception {
+        // How a ResponseStatusException reaches the response: the body is rendered later by the error page
+        filter.doFilter(request, response, (req, res) ->
+                ((HttpServletResponse) res).sendError(409, "This time slot is already booked"));
+
+        verify(idempotencyService, never()).store(anyString(), anyString(), anyInt(), any(), any());
+        assertThat(response.getStatus()).isEqualTo(409);
+        assertThat(response.getErrorMessage()).isEqualTo("This time slot is already booked");
+        verify(idempotencyService).end("anonymous:key-1");
+    }
+
+    @Test
+    void serverErrorIsNotStored() throws Exception {
+        filter.doFilter(request, response, (req, res) -> {
+            ((HttpServletResponse) res).setStatus(503);
+            res.getWriter().write("busy");
+        });
+
+        verify(idempotencyService, never()).store(anyString(), anyString(), anyInt(), any(), any());
+    }
+}
@@ -0,0 +1,68 @@
+package com.docorbitbackend.controllers;
+
+import com.docorbitbackend.services.LoginRateLimiter;
+import com.docorbitbackend.services.PasswordHashingPool;
+import com.docorbitbackend.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * How /api/auth/login reports the two ways a login can be turned away before
+ * the password is judged: an empty bucket (429) and a full hashing pool (503).
+ */
+class AuthControllerLoginTest {
+
+    private final UserService userService = mock(UserService.class);
+    private final AuthController controller = new AuthController();
+    private final MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "userService", userService);
+        httpRequest.setRemoteAddr("203.0.113.7");
+    }
+
+    @Test
+    void busyHashingPoolIsServiceUnavailable() {
+        when(userService.login("alice", "secret", "203.0.113.7"))
+                .thenThrow(new PasswordHashingPool.BusyException("Login is busy, try again shortly"));
+
+        ResponseEntity<?> response = login();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    @Test
+    void emptyBucketIsTooManyRequestsWithRetryAfter() {
+        when(userService.login("alice", "secret", "203.0.113.7"))
+                .thenThrow(new LoginRateLimiter.RateLimitedException(LoginRateLimiter.Scope.IP, 3));
+
+        ResponseEntity<?> response = login();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+    }
+
+    @Test
+    void badCredentialsAreUnauthorized() {
+        when(userService.login("alice", "secret", "203.0.113.7"))
+                .thenThrow(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials"));
+
+        assertThat(login().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    private ResponseEntity<?> login() {
+        return controller.login(new AuthController.LoginRequest("alice", "secret"), httpRequest);
+    }
+}
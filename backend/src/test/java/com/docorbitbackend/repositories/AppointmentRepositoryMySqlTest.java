@@ -0,0 +1,180 @@
+package com.docorbitbackend.repositories;
+
+import com.docorbitbackend.models.Appointment;
+import com.docorbitbackend.services.AppointmentService;
+import com.docorbitbackend.services.AutocompleteIndex;
+import com.docorbitbackend.services.EmailOutboxService;
+import com.docorbitbackend.services.OccupancyService;
+import com.docorbitbackend.services.SlotOccupancyService;
+import com.docorbitbackend.services.WaitlistService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The parts of double-booking protection that only MySQL can check: the
+ * native active_slot backfill (UPDATE ... JOIN) and the slot unique key.
+ * Runs against a throwaway MySQL container and is skipped without Docker.
+ * Rows are written with plain SQL, as pre-active_slot data would have been,
+ * and every statement commits (no test transaction).
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class AppointmentRepositoryMySqlTest {
+
+    @Container
+    @ServiceConnection
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private final LocalDate day = LocalDate.now().plusDays(7);
+    private long clinicId;
+    private long doctorId;
+    private long patientId;
+
+    @BeforeEach
+    void seed() {
+        clinicId = insertRow("INSERT INTO clinics (name, address, city, state, country) VALUES ('Central', '1 Main St', 'Pune', 'MH', 'IN')");
+        doctorId = insertRow("INSERT INTO doctors (name, specialization, email, clinic_id) VALUES ('Dr. Rao', 'Cardiology', 'rao@example.com', ?)", clinicId);
+        patientId = insertRow("INSERT INTO users (username, password, name, gender, dob, phone_number, email, address, city, state, zip, country, enabled) "
+                + "VALUES ('patient1', 'password1', 'Asha', 'FEMALE', '1990-01-01', '9999999999', 'asha@example.com', '2 Side St', 'Pune', 'MH', '411001', 'IN', TRUE)");
+    }
+
+    @AfterEach
+    void clean() {
+        jdbc.update("DELETE FROM appointments");
+        jdbc.update("DELETE FROM doctors");
+        jdbc.update("DELETE FROM clinics");
+        jdbc.update("DELETE FROM users");
+    }
+
+    @Test
+    void backfillMarksTheOldestLiveBookingOfEachSlot() {
+        LocalTime ten = LocalTime.of(10, 0);
+        LocalTime eleven = LocalTime.of(11, 0);
+        LocalTime noon = LocalTime.of(12, 0);
+        // 10:00 was double-booked before the unique key existed
+        long tenFirst = insert(ten, "PENDING", null);
+        long tenSecond = insert(ten, "CONFIRMED", null);
+        // 11:00: a cancelled booking, then a live one
+        long elevenCancelled = insert(eleven, "CANCELLED", null);
+        long elevenLive = insert(eleven, "PENDING", null);
+        // 12:00 already holds its slot; a legacy row for the same time must not take it
+        long noonHolder = insert(noon, "PENDING", true);
+        long noonLegacy = insert(noon, "PENDING", null);
+
+        assertThat(appointmentRepository.backfillActiveSlots()).isEqualTo(2);
+
+        assertThat(activeSlot(tenFirst)).isTrue();
+        assertThat(activeSlot(tenSecond)).isNull();
+        assertThat(activeSlot(elevenCancelled)).isNull();
+        assertThat(activeSlot(elevenLive)).isTrue();
+        assertThat(activeSlot(noonHolder)).isTrue();
+        assertThat(activeSlot(noonLegacy)).isNull();
+        // The two live rows the key can't cover are reported, not silently dropped
+        assertThat(appointmentRepository.countLiveWithoutActiveSlot()).isEqualTo(2);
+
+        // Idempotent: a second startup changes nothing
+        assertThat(appointmentRepository.backfillActiveSlots()).isZero();
+    }
+
+    @Test
+    void cancelledRowsDontBlockTheSlot() {
+        LocalTime ten = LocalTime.of(10, 0);
+        insert(ten, "CANCELLED", null);
+        insert(ten, "CANCELLED", null);
+
+        long rebooked = insert(ten, "PENDING", true);
+
+        assertThat(activeSlot(rebooked)).isTrue();
+    }
+
+    @Test
+    void slotTakenThroughAnotherInstanceIsA409() {
+        LocalTime ten = LocalTime.of(10, 0);
+        // Two instances, each with its own in-memory index built before either booking
+        AppointmentService first = appointmentService();
+        AppointmentService second = appointmentService();
+
+        first.bookAppointment(doctorId, patientId, day, ten);
+
+        // The second index still shows 10:00 free, so only the unique key stands in the way
+        assertThatThrownBy(() -> second.bookAppointment(doctorId, patientId, day, ten))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(jdbc.queryForObject(
+                "SELECT COUNT(*) FROM appointments WHERE doctor_id = ? AND appointment_date = ? AND appointment_time = ?",
+                Integer.class, doctorId, day, ten)).isEqualTo(1);
+        // The constraint name the service matches on is the one MySQL reports
+        assertThatThrownBy(() -> insert(ten, "PENDING", true)).hasMessageContaining(Appointment.SLOT_UNIQUE_KEY);
+    }
+
+    private AppointmentService appointmentService() {
+        SlotOccupancyService slots = new SlotOccupancyService(appointmentRepository);
+        ReflectionTestUtils.setField(slots, "openingTimeProperty", "09:00");
+        ReflectionTestUtils.setField(slots, "closingTimeProperty", "17:00");
+        slots.init();
+        return new AppointmentService(appointmentRepository, doctorRepository, userRepository,
+                mock(EmailOutboxService.class), slots, new TransactionTemplate(transactionManager),
+                mock(WaitlistService.class), mock(OccupancyService.class), mock(AutocompleteIndex.class));
+    }
+
+    private long insert(LocalTime time, String status, Boolean activeSlot) {
+        return insertRow("INSERT INTO appointments (doctor_id, patient_id, clinic_id, appointment_date, appointment_time, status, active_slot, version) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, 0)", doctorId, patientId, clinicId, day, time, status, activeSlot);
+    }
+
+    private Boolean activeSlot(long appointmentId) {
+        return jdbc.queryForObject("SELECT active_slot FROM appointments WHERE id = ?", Boolean.class, appointmentId);
+    }
+
+    // Each statement may run on a different pooled connection, so the key comes back with the insert
+    private long insertRow(String sql, Object... args) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbc.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            new ArgumentPreparedStatementSetter(args).setValues(statement);
+            return statement;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+}
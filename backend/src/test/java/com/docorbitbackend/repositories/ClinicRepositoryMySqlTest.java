@@ -0,0 +1,73 @@
+package com.docorbitbackend.repositories;
+
+import com.docorbitbackend.dtos.requestdtos.ClinicCursor;
+import com.docorbitbackend.dtos.responsedtos.ClinicDirectoryDto;
+import com.docorbitbackend.dtos.responsedtos.ClinicPage;
+import com.docorbitbackend.services.ClinicDirectoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Clinic directory keyset paging on MySQL, including clinics without a name.
+ * Skipped without Docker, like {@link AppointmentRepositoryMySqlTest}.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class ClinicRepositoryMySqlTest {
+
+    @Container
+    @ServiceConnection
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private ClinicRepository clinicRepository;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void clean() {
+        jdbc.update("DELETE FROM clinics");
+    }
+
+    @Test
+    void pagingOneByOneReturnsEveryClinicOnceIncludingUnnamedOnes() {
+        // Inserted out of order; rows are written with SQL so the entity listeners stay out of it
+        for (String name : new String[]{"Beta", null, "Alpha", "", null, "Alpha"}) {
+            jdbc.update("INSERT INTO clinics (name, city, state, country) VALUES (?, 'Pune', 'MH', 'IN')", name);
+        }
+        ClinicDirectoryService directory = new ClinicDirectoryService(clinicRepository);
+
+        List<String> names = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            // Through the wire format, as a client would send the cursor back
+            ClinicPage page = directory.getDirectoryPage(null, null, ClinicCursor.fromRequest(cursor), 1);
+            for (ClinicDirectoryDto clinic : page.items()) {
+                names.add(clinic.getName());
+                ids.add(clinic.getId());
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null && names.size() < 10);
+
+        assertThat(names).containsExactly(null, null, "", "Alpha", "Alpha", "Beta");
+        assertThat(ids).doesNotHaveDuplicates();
+    }
+}
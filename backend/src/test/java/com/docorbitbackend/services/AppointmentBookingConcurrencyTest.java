@@ -0,0 +1,249 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.dtos.responsedtos.AppointmentResponseDto;
+import com.docorbitbackend.models.Appointment;
+import com.docorbitbackend.models.Clinic;
+import com.docorbitbackend.models.Doctor;
+import com.docorbitbackend.models.User;
+import com.docorbitbackend.repositories.AppointmentRepository;
+import com.docorbitbackend.repositories.DoctorRepository;
+import com.docorbitbackend.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires thousands of parallel bookings at a small set of slots and checks that
+ * no slot is ever booked twice. The appointments table is an in-memory map that
+ * enforces uk_appointments_doctor_slot the way MySQL does, and the transaction
+ * manager runs real synchronizations, so rollback hooks behave as in production.
+ */
+class AppointmentBookingConcurrencyTest {
+
+    private static final int DOCTORS = 12;
+    private static final int DAYS = 2;
+    private static final LocalTime[] TIMES = {
+            LocalTime.of(9, 0), LocalTime.of(9, 30), LocalTime.of(10, 0), LocalTime.of(10, 30),
+            LocalTime.of(11, 0), LocalTime.of(11, 30), LocalTime.of(14, 0), LocalTime.of(14, 30)};
+    private static final int BOOKINGS = 5_000;
+    private static final int THREADS = 48;
+
+    private final LocalDate firstDay = LocalDate.now().plusDays(7);
+
+    private record Slot(long doctorId, LocalDate date, LocalTime time) {
+    }
+
+    // The appointments table: live rows by slot (the unique key), every insert counted
+    private final Map<Slot, Appointment> liveRows = new ConcurrentHashMap<>();
+    private final AtomicInteger inserts = new AtomicInteger();
+    private final AtomicInteger uniqueKeyHits = new AtomicInteger();
+    private final AtomicInteger deadlocksInjected = new AtomicInteger();
+    private final AtomicLong ids = new AtomicLong();
+
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final DoctorRepository doctorRepository = mock(DoctorRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @BeforeEach
+    void setUp() {
+        Clinic clinic = new Clinic();
+        clinic.setId(1L);
+        clinic.setName("Orbit Clinic");
+        for (long id = 1; id <= DOCTORS; id++) {
+            Doctor doctor = new Doctor();
+            doctor.setId(id);
+            doctor.setName("Doctor " + id);
+            doctor.setEmail("doctor" + id + "@example.com");
+            doctor.setClinic(clinic);
+            when(doctorRepository.findById(id)).thenReturn(Optional.of(doctor));
+        }
+        when(userRepository.findById(anyLong())).thenAnswer(inv -> {
+            User patient = new User();
+            patient.setId(inv.getArgument(0));
+            patient.setName("Patient " + patient.getId());
+            patient.setEmail("patient" + patient.getId() + "@example.com");
+            return Optional.of(patient);
+        });
+
+        when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenAnswer(inv -> {
+            Appointment appointment = inv.getArgument(0);
+            // Every 10th insert hits a deadlock first, so the retry path runs under load too
+            if (inserts.incrementAndGet() % 10 == 0) {
+                deadlocksInjected.incrementAndGet();
+                throw new CannotAcquireLockException("Deadlock found when trying to get lock");
+            }
+            Slot slot = new Slot(appointment.getDoctor().getId(),
+                    appointment.getAppointmentDate(), appointment.getAppointmentTime());
+            if (Boolean.TRUE.equals(appointment.getActiveSlot()) && liveRows.putIfAbsent(slot, appointment) != null) {
+                uniqueKeyHits.incrementAndGet();
+                throw new DataIntegrityViolationException(
+                        "Duplicate entry for key 'appointments." + Appointment.SLOT_UNIQUE_KEY + "'");
+            }
+            appointment.setId(ids.incrementAndGet());
+            return appointment;
+        });
+    }
+
+    // One application instance: its own occupancy index and stripe locks, sharing the table
+    private AppointmentService instance() {
+        SlotOccupancyService slots = new SlotOccupancyService(appointmentRepository);
+        ReflectionTestUtils.setField(slots, "openingTimeProperty", "09:00");
+        ReflectionTestUtils.setField(slots, "closingTimeProperty", "17:00");
+        slots.init();
+
+        return new AppointmentService(appointmentRepository, doctorRepository, userRepository,
+                mock(EmailOutboxService.class), slots, new TransactionTemplate(new SynchronizingTransactionManager()),
+                mock(WaitlistService.class), mock(OccupancyService.class), mock(AutocompleteIndex.class));
+    }
+
+    @Test
+    void parallelBookingsOnOneInstanceNeverDoubleBook() throws Exception {
+        AppointmentService service = instance();
+
+        Outcome outcome = hammer(List.of(service));
+
+        outcome.assertNoDoubleBooking();
+        // In-process the stripe lock and the occupancy index settle every race; the key never fires
+        assertThat(uniqueKeyHits).hasValue(0);
+        assertThat(deadlocksInjected.get()).isPositive();
+    }
+
+    @Test
+    void parallelBookingsAcrossInstancesAreSettledByTheUniqueKey() throws Exception {
+        // Separate indexes and locks: only the database constraint stands between the two
+        List<AppointmentService> instances = List.of(instance(), instance());
+
+        Outcome outcome = hammer(instances);
+
+        outcome.assertNoDoubleBooking();
+        assertThat(uniqueKeyHits.get()).isPositive();
+    }
+
+    @Test
+    void slotTakenByAnotherInstanceIsRememberedAfterTheConflict() {
+        AppointmentService service = instance();
+        Appointment elsewhere = new Appointment();
+        elsewhere.setActiveSlot(true);
+        liveRows.put(new Slot(1L, firstDay, TIMES[0]), elsewhere);
+
+        for (long patientId = 100; patientId < 102; patientId++) {
+            long patient = patientId;
+            assertThatThrownBy(() -> service.bookAppointment(1L, patient, firstDay, TIMES[0]))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        }
+        // First attempt learns about the row from the key; the second is refused by the index alone
+        assertThat(uniqueKeyHits).hasValue(1);
+        assertThat(liveRows).hasSize(1);
+    }
+
+    private Outcome hammer(List<AppointmentService> instances) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Map<Slot, AtomicInteger> booked = new ConcurrentHashMap<>();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(BOOKINGS);
+
+        try {
+            for (int i = 0; i < BOOKINGS; i++) {
+                long patientId = 1_000 + i;
+                AppointmentService service = instances.get(i % instances.size());
+                futures.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    Slot slot = new Slot(1 + random.nextInt(DOCTORS),
+                            firstDay.plusDays(random.nextInt(DAYS)), TIMES[random.nextInt(TIMES.length)]);
+                    start.await();
+                    try {
+                        AppointmentResponseDto dto = service.bookAppointment(slot.doctorId(), patientId, slot.date(), slot.time());
+                        assertThat(dto.getId()).isNotNull();
+                        booked.computeIfAbsent(slot, s -> new AtomicInteger()).incrementAndGet();
+                    } catch (ResponseStatusException e) {
+                        assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Outcome(booked, conflicts.get());
+    }
+
+    private class Outcome {
+        private final Map<Slot, AtomicInteger> booked;
+        private final int conflicts;
+
+        Outcome(Map<Slot, AtomicInteger> booked, int conflicts) {
+            this.booked = booked;
+            this.conflicts = conflicts;
+        }
+
+        void assertNoDoubleBooking() {
+            int successes = booked.values().stream().mapToInt(AtomicInteger::get).sum();
+            // Every request got an answer: a booking or a 409
+            assertThat(successes + conflicts).isEqualTo(BOOKINGS);
+            // Exactly one winner per slot that was asked for, and the table agrees
+            assertThat(booked.values()).allSatisfy(count -> assertThat(count).hasValue(1));
+            assertThat(liveRows.keySet()).isEqualTo(booked.keySet());
+            // 5000 requests over 192 slots: every slot is contended, so every one gets booked
+            assertThat(booked).hasSize(DOCTORS * DAYS * TIMES.length);
+        }
+    }
+
+    // No database behind it; begin/commit/rollback only drive transaction synchronizations
+    private static class SynchronizingTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.dtos.responsedtos.AppointmentResponseDto;
+import com.docorbitbackend.enums.AppointmentStatus;
+import com.docorbitbackend.enums.EmailType;
+import com.docorbitbackend.enums.OutboxStatus;
+import com.docorbitbackend.models.EmailOutbox;
+import com.docorbitbackend.repositories.EmailOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.ServerSocket;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drains the outbox against GreenMail, an SMTP server running in the test JVM,
+ * so the real EmailService / JavaMailSender path is exercised end to end.
+ */
+class EmailOutboxServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+    private final List<EmailOutbox> saved = new ArrayList<>();
+
+    private EmailOutboxService outbox;
+
+    private EmailOutboxService outboxSendingTo(int smtpPort) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("127.0.0.1");
+        sender.setPort(smtpPort);
+        EmailService emailService = new EmailService(sender);
+        ReflectionTestUtils.setField(emailService, "senderEmail", "noreply@docorbit.test");
+
+        EmailOutboxService service = new EmailOutboxService(repository, emailService, objectMapper,
+                new SimpleMeterRegistry(), new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "batchSize", 50);
+        ReflectionTestUtils.setField(service, "threads", 2);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "baseBackoffSeconds", 30L);
+        ReflectionTestUtils.setField(service, "claimTimeoutSeconds", 300L);
+
+        when(repository.saveAll(any())).thenAnswer(inv -> {
+            inv.<Iterable<EmailOutbox>>getArgument(0).forEach(saved::add);
+            return saved;
+        });
+        service.init();
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (outbox != null) outbox.shutdown();
+    }
+
+    @Test
+    void drainSendsEveryClaimedEmailOverSmtp() throws Exception {
+        outbox = outboxSendingTo(smtp.getSmtp().getPort());
+        EmailOutbox patient = row(1L, EmailType.APPOINTMENT_CONFIRMATION, "patient@example.com", 0);
+        EmailOutbox doctor = row(2L, EmailType.DOCTOR_NOTIFICATION, "doctor@example.com", 0);
+        claimable(patient, doctor);
+
+        outbox.drain();
+
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertThat(received).hasSize(2);
+        assertThat(List.of(received[0].getAllRecipients()[0].toString(), received[1].getAllRecipients()[0].toString()))
+                .containsExactlyInAnyOrder("patient@example.com", "doctor@example.com");
+        assertThat(List.of(received[0].getSubject(), received[1].getSubject()))
+                .containsExactlyInAnyOrder("✅ Appointment Confirmed - DocOrbit", "📅 New Appointment Booked - DocOrbit");
+
+        assertThat(saved).extracting(EmailOutbox::getStatus).containsOnly(OutboxStatus.SENT);
+        assertThat(saved).allSatisfy(e -> {
+            assertThat(e.getAttempts()).isEqualTo(1);
+            assertThat(e.getSentAt()).isNotNull();
+        });
+        verify(repository).claim(eq(List.of(1L, 2L)), any());
+    }
+
+    @Test
+    void batchEmailIsOneMessageListingEveryAppointment() throws Exception {
+        outbox = outboxSendingTo(smtp.getSmtp().getPort());
+        EmailOutbox summary = row(3L, EmailType.BATCH_CONFIRMATION, "patient@example.com", 0);
+        summary.setPayload(objectMapper.writeValueAsString(List.of(appointment(10L), appointment(11L), appointment(12L))));
+        claimable(summary);
+
+        outbox.drain();
+
+        assertThat(smtp.getReceivedMessages()).hasSize(1);
+        assertThat(smtp.getReceivedMessages()[0].getSubject()).isEqualTo("✅ 3 Appointments Confirmed - DocOrbit");
+        assertThat(saved).extracting(EmailOutbox::getStatus).containsExactly(OutboxStatus.SENT);
+    }
+
+    @Test
+    void unreachableSmtpReschedulesTheEmailWithBackoff() throws Exception {
+        outbox = outboxSendingTo(closedPort());
+        EmailOutbox email = row(4L, EmailType.APPOINTMENT_CONFIRMATION, "patient@example.com", 0);
+        claimable(email);
+
+        LocalDateTime before = LocalDateTime.now();
+        outbox.drain();
+
+        assertThat(saved).hasSize(1);
+        EmailOutbox retried = saved.get(0);
+        // Back to PENDING, so the claim is given up and the next due drain picks it again
+        assertThat(retried.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(30));
+        assertThat(retried.getLastError()).isNotBlank();
+    }
+
+    @Test
+    void lastAttemptFailureGivesUp() throws Exception {
+        outbox = outboxSendingTo(closedPort());
+        EmailOutbox email = row(5L, EmailType.APPOINTMENT_CONFIRMATION, "patient@example.com", 2);
+        claimable(email);
+
+        outbox.drain();
+
+        assertThat(saved).extracting(EmailOutbox::getStatus).containsExactly(OutboxStatus.FAILED);
+        assertThat(saved.get(0).getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    void nothingClaimedMeansNothingSent() {
+        outbox = outboxSendingTo(smtp.getSmtp().getPort());
+        when(repository.lockDueIds(any(), anyInt())).thenReturn(List.of());
+
+        outbox.drain();
+
+        assertThat(smtp.getReceivedMessages()).isEmpty();
+        verify(repository, never()).claim(anyCollection(), any());
+        verify(repository, never()).findAllById(any());
+    }
+
+    @Test
+    void enqueueOnlyWritesTheRow() {
+        outbox = outboxSendingTo(smtp.getSmtp().getPort());
+
+        outbox.enqueue(EmailType.APPOINTMENT_CONFIRMATION, "patient@example.com", "Pat", appointment(20L));
+
+        // The booking transaction never waits on SMTP
+        assertThat(smtp.getReceivedMessages()).isEmpty();
+        verify(repository).save(any(EmailOutbox.class));
+        assertThat(outbox.getBacklog()).isEqualTo(1);
+    }
+
+    @Test
+    void backlogOnlyCountsCommittedRows() {
+        outbox = outboxSendingTo(smtp.getSmtp().getPort());
+        TransactionTemplate booking = new TransactionTemplate(new SynchronizingTransactionManager());
+
+        booking.executeWithoutResult(tx -> {
+            outbox.enqueue(EmailType.APPOINTMENT_CONFIRMATION, "patient@example.com", "Pat", appointment(21L));
+            // Not committed yet
+            assertThat(outbox.getBacklog()).isZero();
+            tx.setRollbackOnly();
+        });
+        assertThat(outbox.getBacklog()).isZero();
+
+        booking.executeWithoutResult(tx ->
+                outbox.enqueue(EmailType.APPOINTMENT_CONFIRMATION, "patient@example.com", "Pat", appointment(22L)));
+        assertThat(outbox.getBacklog()).isEqualTo(1);
+    }
+
+    private void claimable(EmailOutbox... rows) {
+        List<Long> ids = Arrays.stream(rows).map(EmailOutbox::getId).toList();
+        when(repository.lockDueIds(any(), anyInt())).thenReturn(ids);
+        when(repository.claim(eq(ids), any())).thenReturn(ids.size());
+        when(repository.findAllById(ids)).thenReturn(List.of(rows));
+    }
+
+    private EmailOutbox row(Long id, EmailType type, String to, int attempts) throws Exception {
+        return EmailOutbox.builder()
+                .id(id)
+                .type(type)
+                .recipientEmail(to)
+                .recipientName("Recipient " + id)
+                .payload(objectMapper.writeValueAsString(appointment(id)))
+                .status(OutboxStatus.IN_FLIGHT)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now().plusMinutes(5))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static AppointmentResponseDto appointment(Long id) {
+        return AppointmentResponseDto.builder()
+                .id(id)
+                .appointmentDate(LocalDate.now().plusDays(3))
+                .appointmentTime(LocalTime.of(10, 30))
+                .doctorName("Dr. Rao")
+                .specialization("Cardiology")
+                .clinicName("Orbit Clinic")
+                .clinicAddress("1 Main St")
+                .clinicCity("Pune")
+                .patientName("Pat")
+                .status(AppointmentStatus.PENDING)
+                .build();
+    }
+
+    // No database behind it; begin/commit/rollback only drive transaction synchronizations
+    private static class SynchronizingTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    // A port nothing listens on, so connecting fails straight away
+    private static int closedPort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.docorbitbackend.services;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.security.SecureRandom;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request with a bearer token: the old path (JwtAuthFilter
+ * called extractUserName, then validateToken parsed the token twice more, each parse
+ * decoding the Base64 secret and building a new parser) against JwtService.verify,
+ * with the claims cache cold (every call a signature check) and warm.
+ * <p>
+ * Not part of the test phase. Run with:
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.docorbitbackend.services.JwtVerifyBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private String secret;
+    private String token;
+    private UserDetails user;
+
+    private JwtService cached;
+    private JwtService uncached;
+
+    @Setup
+    public void setUp() {
+        byte[] keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        secret = Encoders.BASE64.encode(keyBytes);
+
+        cached = jwtService(10_000);
+        // A cache that can't hold anything: every verify() is a miss
+        uncached = jwtService(0);
+
+        token = cached.generateToken(Map.of(JwtService.CLAIM_USER_ID, 42L,
+                JwtService.CLAIM_ROLES, List.of("PATIENT")), "patient42");
+        user = User.withUsername("patient42").password("unused").roles("PATIENT").build();
+    }
+
+    private JwtService jwtService(int maxCachedTokens) {
+        JwtService service = new JwtService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "secretKey", secret);
+        ReflectionTestUtils.setField(service, "maxCachedTokens", maxCachedTokens);
+        ReflectionTestUtils.setField(service, "accessTokenTtlMinutes", 15L);
+        service.init();
+        return service;
+    }
+
+    @Benchmark
+    public boolean threeParses() {
+        // What JwtAuthFilter + the old validateToken did per request
+        String userName = legacyClaims().getSubject();
+        return userName.equals(user.getUsername())
+                && legacyClaims().getSubject().equals(user.getUsername())
+                && !legacyClaims().getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean verifyUncached() {
+        return uncached.validateToken(uncached.verify(token), user);
+    }
+
+    @Benchmark
+    public boolean verifyCached() {
+        return cached.validateToken(cached.verify(token), user);
+    }
+
+    // The pre-cache extractAllClaims: key decoded and parser built on every call
+    private Claims legacyClaims() {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerifyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package com.docorbitbackend.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LoginRateLimiter(meterRegistry);
+        ReflectionTestUtils.setField(limiter, "ipCapacity", 10);
+        ReflectionTestUtils.setField(limiter, "ipRefillSeconds", 60.0);
+        ReflectionTestUtils.setField(limiter, "accountCapacity", 3);
+        ReflectionTestUtils.setField(limiter, "accountRefillSeconds", 60.0);
+        limiter.registerMetrics();
+    }
+
+    @Test
+    void accountBucketAllowsABurstThenRejects() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("10.0.0." + i, "alice");
+        }
+
+        // Different IPs don't help: the account itself is out of attempts
+        assertThatThrownBy(() -> limiter.acquire("10.0.0.99", "alice"))
+                .isInstanceOfSatisfying(LoginRateLimiter.RateLimitedException.class, e -> {
+                    assertThat(e.getScope()).isEqualTo(LoginRateLimiter.Scope.ACCOUNT);
+                    assertThat(e.getRetryAfterSeconds()).isBetween(1L, 60L);
+                });
+        assertThat(meterRegistry.counter("auth.login.rejected", "reason", "rate_account").count()).isEqualTo(1);
+    }
+
+    @Test
+    void accountNamesAreMatchedIgnoringCaseAndSpaces() {
+        limiter.acquire("10.0.0.1", "alice");
+        limiter.acquire("10.0.0.2", "Alice");
+        limiter.acquire("10.0.0.3", " ALICE ");
+
+        assertThatThrownBy(() -> limiter.acquire("10.0.0.4", "aLiCe"))
+                .isInstanceOf(LoginRateLimiter.RateLimitedException.class);
+    }
+
+    @Test
+    void ipBucketStopsSprayingAcrossAccounts() {
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("203.0.113.7", "user" + i);
+        }
+
+        assertThatThrownBy(() -> limiter.acquire("203.0.113.7", "someone-else"))
+                .isInstanceOfSatisfying(LoginRateLimiter.RateLimitedException.class,
+                        e -> assertThat(e.getScope()).isEqualTo(LoginRateLimiter.Scope.IP));
+        // Another client is unaffected
+        assertThatCode(() -> limiter.acquire("203.0.113.8", "someone-else")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void rejectedIpAttemptDoesNotSpendTheAccountsBudget() {
+        ReflectionTestUtils.setField(limiter, "ipCapacity", 1);
+        limiter.acquire("203.0.113.7", "alice");
+        assertThatThrownBy(() -> limiter.acquire("203.0.113.7", "alice"))
+                .isInstanceOf(LoginRateLimiter.RateLimitedException.class);
+
+        // alice still has two of her three attempts left from elsewhere
+        limiter.acquire("10.0.0.1", "alice");
+        limiter.acquire("10.0.0.2", "alice");
+        assertThatThrownBy(() -> limiter.acquire("10.0.0.3", "alice"))
+                .isInstanceOfSatisfying(LoginRateLimiter.RateLimitedException.class,
+                        e -> assertThat(e.getScope()).isEqualTo(LoginRateLimiter.Scope.ACCOUNT));
+    }
+
+    @Test
+    void emptyBucketRefillsOverTime() throws Exception {
+        ReflectionTestUtils.setField(limiter, "accountRefillSeconds", 0.2);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("10.0.0.1", "alice");
+        }
+        assertThatThrownBy(() -> limiter.acquire("10.0.0.1", "alice"))
+                .isInstanceOf(LoginRateLimiter.RateLimitedException.class);
+
+        Thread.sleep(250);
+
+        assertThatCode(() -> limiter.acquire("10.0.0.1", "alice")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void onlyRefilledBucketsAreDropped() throws Exception {
+        ReflectionTestUtils.setField(limiter, "ipRefillSeconds", 0.05);
+        limiter.acquire("10.0.0.1", "alice");
+        assertThat(meterRegistry.get("auth.login.buckets").tag("scope", "ip").gauge().value()).isEqualTo(1);
+
+        Thread.sleep(100);
+        limiter.dropIdleBuckets();
+
+        // The IP bucket is full again and forgotten; alice's (60s refill) is still draining
+        assertThat(meterRegistry.get("auth.login.buckets").tag("scope", "ip").gauge().value()).isZero();
+        assertThat(meterRegistry.get("auth.login.buckets").tag("scope", "account").gauge().value()).isEqualTo(1);
+    }
+}
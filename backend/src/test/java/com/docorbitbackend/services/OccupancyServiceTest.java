@@ -0,0 +1,114 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.repositories.DoctorDayOccupancyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The month cache must agree with doctor_day_occupancy whatever order loads
+ * and commits happen in. The table is a map; writes become visible at once, as
+ * they would to a load running between the database commit and the commit hook.
+ */
+class OccupancyServiceTest {
+
+    private static final long DOCTOR = 1L;
+    private static final YearMonth MONTH = YearMonth.of(2030, 3);
+    private static final LocalDate DAY = MONTH.atDay(14);
+
+    private final Map<LocalDate, Integer> table = new ConcurrentHashMap<>();
+    private final DoctorDayOccupancyRepository repository = mock(DoctorDayOccupancyRepository.class);
+    private final TransactionTemplate transactions = new TransactionTemplate(new SynchronizingTransactionManager());
+
+    private OccupancyService occupancy;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.addToDay(anyLong(), any(), anyInt())).thenAnswer(inv -> {
+            table.merge(inv.getArgument(1), inv.<Integer>getArgument(2), Integer::sum);
+            return 1;
+        });
+        when(repository.findDays(anyLong(), any(), any())).thenAnswer(inv -> {
+            List<Object[]> rows = new ArrayList<>();
+            table.forEach((day, count) -> rows.add(new Object[]{day, count}));
+            return rows;
+        });
+        occupancy = new OccupancyService(repository);
+        ReflectionTestUtils.setField(occupancy, "maxMonths", 100);
+    }
+
+    @Test
+    void committedBookingUpdatesACachedMonth() {
+        assertThat(occupancy.getMonth(DOCTOR, MONTH)).containsEntry(DAY, 0);
+
+        transactions.executeWithoutResult(status -> occupancy.recordBooked(DOCTOR, DAY));
+
+        assertThat(occupancy.getMonth(DOCTOR, MONTH)).containsEntry(DAY, 1);
+    }
+
+    @Test
+    void loadBetweenCommitAndHookIsNotCountedTwice() {
+        transactions.executeWithoutResult(status -> {
+            occupancy.recordBooked(DOCTOR, DAY);
+            // The load already sees the new count; the commit hook still has to run
+            assertThat(occupancy.getMonth(DOCTOR, MONTH)).containsEntry(DAY, 1);
+        });
+
+        assertThat(occupancy.getMonth(DOCTOR, MONTH)).containsEntry(DAY, 1);
+        assertThat(occupancy.getMonth(DOCTOR, MONTH)).containsEntry(DAY, 1);
+    }
+
+    @Test
+    void rolledBackChangeLeavesTheCacheUsable() {
+        transactions.executeWithoutResult(status -> {
+            occupancy.recordBooked(DOCTOR, DAY);
+            status.setRollbackOnly();
+        });
+        table.clear(); // what the rollback does to the row
+
+        assertThat(occupancy.getMonth(DOCTOR, MONTH)).containsEntry(DAY, 0);
+        // Nothing pending any more, so that load was cached and later commits apply to it
+        transactions.executeWithoutResult(status -> occupancy.recordBooked(DOCTOR, DAY));
+        table.put(DAY, 99); // a cached month no longer reads the table
+        assertThat(occupancy.getMonth(DOCTOR, MONTH)).containsEntry(DAY, 1);
+    }
+
+    // No database behind it; begin/commit/rollback only drive transaction synchronizations
+    private static class SynchronizingTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.docorbitbackend.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingPoolTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountingEncoder encoder = new CountingEncoder();
+    private PasswordHashingPool pool;
+
+    private PasswordHashingPool pool(int threads, int queue, long timeoutMillis) {
+        PasswordHashingPool created = new PasswordHashingPool(encoder, meterRegistry);
+        ReflectionTestUtils.setField(created, "threads", threads);
+        ReflectionTestUtils.setField(created, "queueCapacity", queue);
+        ReflectionTestUtils.setField(created, "timeoutMillis", timeoutMillis);
+        created.init();
+        return created;
+    }
+
+    @AfterEach
+    void tearDown() {
+        encoder.release.countDown();
+        if (pool != null) pool.shutdown();
+    }
+
+    @Test
+    void matchesChecksThePasswordOnThePool() {
+        pool = pool(2, 4, 5_000);
+        String hash = encoder.encode("secret");
+
+        assertThat(pool.matches("secret", hash)).isTrue();
+        assertThat(pool.matches("wrong", hash)).isFalse();
+        assertThat(encoder.matches).hasValue(2);
+    }
+
+    @Test
+    void unknownAccountCostsOneFullCheck() {
+        pool = pool(1, 4, 5_000);
+
+        pool.matchesNothing("whatever");
+        pool.matchesNothing(null);
+
+        // Each call runs BCrypt once against a real hash, like a wrong password would
+        assertThat(encoder.matches).hasValue(2);
+    }
+
+    @Test
+    void fullQueueIsRefusedAtOnce() throws Exception {
+        pool = pool(1, 1, 5_000);
+        String hash = encoder.encode("secret");
+        encoder.block();
+
+        // One check running, one queued: the pool is full
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> pool.matches("secret", hash));
+        assertThat(encoder.started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> pool.matches("secret", hash));
+        waitForQueue(1);
+
+        assertThatThrownBy(() -> pool.matches("secret", hash))
+                .isInstanceOf(PasswordHashingPool.BusyException.class);
+        assertThat(meterRegistry.counter("auth.login.rejected", "reason", "busy").count()).isEqualTo(1);
+
+        encoder.release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void slowCheckTimesOut() throws Exception {
+        pool = pool(1, 1, 100);
+        String hash = encoder.encode("secret");
+        encoder.block();
+
+        assertThatThrownBy(() -> pool.matches("secret", hash))
+                .isInstanceOf(PasswordHashingPool.BusyException.class);
+        assertThat(meterRegistry.counter("auth.login.rejected", "reason", "timeout").count()).isEqualTo(1);
+    }
+
+    private void waitForQueue(int size) throws InterruptedException {
+        for (int i = 0; i < 500 && meterRegistry.get("auth.login.hash.queue").gauge().value() < size; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(meterRegistry.get("auth.login.hash.queue").gauge().value()).isEqualTo(size);
+    }
+
+    // Cheap BCrypt that counts checks and can be held mid-check
+    private static class CountingEncoder implements PasswordEncoder {
+        private final PasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        private final AtomicInteger matches = new AtomicInteger();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private volatile CountDownLatch release = new CountDownLatch(0);
+
+        void block() {
+            release = new CountDownLatch(1);
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return bcrypt.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            matches.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return bcrypt.matches(rawPassword, encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.models.RefreshToken;
+import com.docorbitbackend.models.User;
+import com.docorbitbackend.repositories.RefreshTokenRepository;
+import com.docorbitbackend.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rotation and reuse detection. The refresh_tokens table is an in-memory map
+ * keyed by token hash, with revokeFamily doing what its UPDATE does.
+ */
+class RefreshTokenServiceTest {
+
+    private final Map<String, RefreshToken> rows = new ConcurrentHashMap<>();
+
+    private final RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JwtService jwtService = mock(JwtService.class);
+    private final TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+
+    private RefreshTokenService service;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(7L);
+        user.setUsername("alice");
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(jwtService.generateToken(any(User.class))).thenReturn("access-token");
+
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(inv -> {
+            RefreshToken row = inv.getArgument(0);
+            rows.put(row.getTokenHash(), row);
+            return row;
+        });
+        when(refreshTokenRepository.findByTokenHashForUpdate(anyString()))
+                .thenAnswer(inv -> Optional.ofNullable(rows.get(inv.<String>getArgument(0))));
+        when(refreshTokenRepository.findByTokenHash(anyString()))
+                .thenAnswer(inv -> Optional.ofNullable(rows.get(inv.<String>getArgument(0))));
+        when(refreshTokenRepository.revokeFamily(anyString(), any())).thenAnswer(inv -> {
+            String familyId = inv.getArgument(0);
+            LocalDateTime now = inv.getArgument(1);
+            List<RefreshToken> family = rows.values().stream()
+                    .filter(r -> r.getFamilyId().equals(familyId) && r.getRevokedAt() == null)
+                    .toList();
+            family.forEach(r -> r.setRevokedAt(now));
+            return family.size();
+        });
+
+        service = new RefreshTokenService(refreshTokenRepository, userRepository, jwtService, tokenRevocationService);
+        ReflectionTestUtils.setField(service, "refreshTokenTtlDays", 14L);
+    }
+
+    @Test
+    void rotateIssuesASuccessorInTheSameFamily() {
+        String first = service.issue(user);
+
+        RefreshTokenService.Session session = service.rotate(first);
+
+        assertThat(session.user()).isSameAs(user);
+        assertThat(session.accessToken()).isEqualTo("access-token");
+        assertThat(session.refreshToken()).isNotEqualTo(first);
+        assertThat(rows).hasSize(2);
+        // Only hashes are stored, never the token the client holds
+        assertThat(rows.keySet()).doesNotContain(first, session.refreshToken());
+        assertThat(rows.values().stream().map(RefreshToken::getFamilyId).distinct()).hasSize(1);
+        assertThat(rows.values()).filteredOn(r -> r.getUsedAt() != null).hasSize(1);
+
+        // The successor rotates in turn
+        assertThat(service.rotate(session.refreshToken()).refreshToken()).isNotNull();
+        verify(tokenRevocationService, never()).revokeAllFor(anyString());
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheWholeFamily() {
+        String first = service.issue(user);
+        String successor = service.rotate(first).refreshToken();
+
+        // Whoever replays the old token is refused...
+        assertUnauthorized(() -> service.rotate(first), "Refresh token already used");
+        // ...the user's live access tokens are cut off...
+        verify(tokenRevocationService).revokeAllFor("alice");
+        // ...and the legitimate holder of the successor is logged out too
+        assertThat(rows.values()).allSatisfy(r -> assertThat(r.getRevokedAt()).isNotNull());
+        assertUnauthorized(() -> service.rotate(successor), "Refresh token already used");
+    }
+
+    @Test
+    void reuseLeavesOtherSessionsAlone() {
+        String phone = service.issue(user);
+        String laptop = service.issue(user);
+        service.rotate(phone);
+
+        assertUnauthorized(() -> service.rotate(phone), "Refresh token already used");
+
+        assertThat(service.rotate(laptop).refreshToken()).isNotNull();
+    }
+
+    @Test
+    void logoutRevokesTheFamily() {
+        String first = service.issue(user);
+        String successor = service.rotate(first).refreshToken();
+
+        service.revoke(successor);
+
+        assertUnauthorized(() -> service.rotate(successor), "Refresh token already used");
+    }
+
+    @Test
+    void expiredTokenIsRejectedWithoutRevokingAnything() {
+        String token = service.issue(user);
+        rows.values().forEach(r -> r.setExpiresAt(LocalDateTime.now().minusMinutes(1)));
+
+        assertUnauthorized(() -> service.rotate(token), "Refresh token expired");
+
+        verify(refreshTokenRepository, never()).revokeFamily(anyString(), any());
+        assertThat(rows.values()).allSatisfy(r -> assertThat(r.getUsedAt()).isNull());
+    }
+
+    @Test
+    void unknownOrMissingTokenIsRejected() {
+        assertUnauthorized(() -> service.rotate("not-a-token"), "Invalid refresh token");
+        assertUnauthorized(() -> service.rotate(" "), "Refresh token required");
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    private static void assertUnauthorized(Runnable call, String reason) {
+        assertThatThrownBy(call::run)
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+                    assertThat(e.getReason()).isEqualTo(reason);
+                });
+    }
+}
@@ -0,0 +1,70 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.repositories.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SlotOccupancyServiceTest {
+
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final LocalDate tomorrow = LocalDate.now().plusDays(1);
+
+    private SlotOccupancyService slots;
+
+    @BeforeEach
+    void setUp() {
+        when(appointmentRepository.findActiveSlotsFrom(any())).thenReturn(List.of());
+        slots = new SlotOccupancyService(appointmentRepository);
+        ReflectionTestUtils.setField(slots, "openingTimeProperty", "09:00");
+        ReflectionTestUtils.setField(slots, "closingTimeProperty", "17:00");
+        slots.init();
+    }
+
+    @Test
+    void slotStartsInsideOpeningHoursAreBookable() {
+        assertThat(slots.checkBookable(tomorrow, LocalTime.of(9, 0))).isNull();
+        assertThat(slots.checkBookable(tomorrow, LocalTime.of(16, 30))).isNull();
+    }
+
+    @Test
+    void timesOffTheSlotGridAreRejected() {
+        // 10:15 would share the 10:00 bit while the unique key sees two different times
+        assertThat(slots.checkBookable(tomorrow, LocalTime.of(10, 15))).contains("slot grid");
+        assertThat(slots.checkBookable(tomorrow, LocalTime.of(10, 0, 30))).contains("slot grid");
+    }
+
+    @Test
+    void timesOutsideOpeningHoursAreRejected() {
+        assertThat(slots.checkBookable(tomorrow, LocalTime.of(8, 30))).contains("opening hours");
+        assertThat(slots.checkBookable(tomorrow, LocalTime.of(17, 0))).contains("opening hours");
+    }
+
+    @Test
+    void pastSlotsAreRejected() {
+        assertThat(slots.checkBookable(LocalDate.now().minusDays(1), LocalTime.of(10, 0))).contains("past");
+    }
+
+    @Test
+    void pastDaysAreDroppedFromTheIndex() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        slots.markOccupied(1L, yesterday, LocalTime.of(10, 0));
+        slots.markOccupied(1L, tomorrow, LocalTime.of(10, 0));
+
+        slots.dropPastDays();
+
+        assertThat(slots.isOccupied(1L, yesterday, LocalTime.of(10, 0))).isFalse();
+        assertThat(slots.isOccupied(1L, tomorrow, LocalTime.of(10, 0))).isTrue();
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(slots, "occupancy")).hasSize(1);
+    }
+}
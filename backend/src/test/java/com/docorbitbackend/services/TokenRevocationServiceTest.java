@@ -0,0 +1,160 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.models.RevokedToken;
+import com.docorbitbackend.models.TokenRevocationCutoff;
+import com.docorbitbackend.repositories.RevokedTokenRepository;
+import com.docorbitbackend.repositories.TokenRevocationCutoffRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The denylist: a Bloom filter in front of the exact set of revoked jtis, plus
+ * per-user cutoffs. No transaction is active here, so revocations reach the
+ * in-memory structures straight away (as after a commit).
+ */
+class TokenRevocationServiceTest {
+
+    private static final long TTL_MILLIS = 15 * 60_000;
+
+    private final RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+    private final TokenRevocationCutoffRepository cutoffRepository = mock(TokenRevocationCutoffRepository.class);
+    private final JwtService jwtService = mock(JwtService.class);
+
+    // What findActive returns: rows saved through revoke()
+    private final List<Object[]> activeRows = new ArrayList<>();
+
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        when(jwtService.getTokenLifetimeMillis()).thenReturn(TTL_MILLIS);
+        when(revokedTokenRepository.findActive(any())).thenReturn(activeRows);
+        when(cutoffRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        when(revokedTokenRepository.save(any(RevokedToken.class))).thenAnswer(inv -> {
+            RevokedToken row = inv.getArgument(0);
+            activeRows.add(new Object[]{row.getJti(), row.getExpiresAt()});
+            return row;
+        });
+
+        service = new TokenRevocationService(revokedTokenRepository, cutoffRepository, jwtService);
+        service.init();
+    }
+
+    @Test
+    void revokedTokenIsRejectedAndOthersPass() {
+        Claims revoked = token("alice", 0);
+        Claims other = token("alice", 0);
+
+        service.revoke(revoked);
+
+        assertThat(service.isRevoked(revoked)).isTrue();
+        assertThat(service.isRevoked(other)).isFalse();
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegativesAndTheExactSetRemovesFalsePositives() {
+        List<Claims> revoked = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            Claims claims = token("user" + i, 0);
+            revoked.add(claims);
+            service.revoke(claims);
+        }
+
+        // Every revoked jti is found...
+        assertThat(revoked).allSatisfy(c -> assertThat(service.isRevoked(c)).isTrue());
+        // ...and since the filter was sized for an empty list it now answers "maybe" for many
+        // jtis that were never revoked; the exact set behind it turns those into a no
+        for (int i = 0; i < 20_000; i++) {
+            assertThat(service.isRevoked(token("user" + i, 0))).isFalse();
+        }
+    }
+
+    @Test
+    void refreshRebuildsFromTheDatabaseAndKeepsEveryRevocation() {
+        Claims local = token("alice", 0);
+        service.revoke(local);
+        // Revoked by another instance: only in the database
+        Claims remote = token("bob", 0);
+        activeRows.add(new Object[]{remote.getId(), LocalDateTime.now().plusMinutes(10)});
+        assertThat(service.isRevoked(remote)).isFalse();
+
+        service.refresh();
+
+        assertThat(service.isRevoked(local)).isTrue();
+        assertThat(service.isRevoked(remote)).isTrue();
+        // Once at startup, once now
+        verify(revokedTokenRepository, times(2)).deleteExpired(any());
+    }
+
+    @Test
+    void expiredRevocationsAreDroppedOnRefresh() {
+        Claims live = token("alice", 0);
+        Claims expired = token("alice", -TTL_MILLIS - 1_000);
+        service.revoke(live);
+        service.revoke(expired);
+        // findActive only returns rows that haven't expired
+        activeRows.removeIf(row -> row[0].equals(expired.getId()));
+
+        service.refresh();
+
+        assertThat(service.isRevoked(live)).isTrue();
+        assertThat(service.isRevoked(expired)).isFalse();
+    }
+
+    @Test
+    void cutoffRevokesEveryTokenIssuedBeforeIt() throws Exception {
+        Claims before = token("alice", -60_000);
+        Claims otherUser = token("bob", -60_000);
+
+        service.revokeAllFor("alice");
+
+        assertThat(service.isRevoked(before)).isTrue();
+        assertThat(service.isRevoked(otherUser)).isFalse();
+        verify(cutoffRepository).save(any(TokenRevocationCutoff.class));
+
+        // iat has whole-second precision: a token from the next second on is fine
+        Thread.sleep(1_100);
+        assertThat(service.isRevoked(token("alice", 0))).isFalse();
+    }
+
+    @Test
+    void tokenWithoutJtiIsRevokedThroughACutoff() {
+        Claims legacy = Jwts.claims()
+                .subject("alice")
+                .issuedAt(new Date(System.currentTimeMillis() - 60_000))
+                .expiration(new Date(System.currentTimeMillis() + TTL_MILLIS))
+                .build();
+
+        service.revoke(legacy);
+
+        assertThat(service.isRevoked(legacy)).isTrue();
+        verify(revokedTokenRepository, never()).save(any());
+    }
+
+    // Claims of a token issued offsetMillis from now, with a fresh jti
+    private static Claims token(String username, long offsetMillis) {
+        long issuedAt = System.currentTimeMillis() + offsetMillis;
+        return Jwts.claims()
+                .id(UUID.randomUUID().toString())
+                .subject(username)
+                .issuedAt(new Date(issuedAt))
+                .expiration(new Date(issuedAt + TTL_MILLIS))
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.enums.Role;
+import com.docorbitbackend.models.User;
+import com.docorbitbackend.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Login hashing cost: a wrong password and an unknown account both cost exactly
+ * one BCrypt check, and a rate-limited attempt costs none.
+ */
+class UserServiceLoginTest {
+
+    private final PasswordEncoder encoder = spy(new BCryptPasswordEncoder(4));
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final LoginRateLimiter loginRateLimiter = mock(LoginRateLimiter.class);
+    private final JwtService jwtService = mock(JwtService.class);
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+
+    private PasswordHashingPool passwordHashingPool;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        passwordHashingPool = new PasswordHashingPool(encoder, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(passwordHashingPool, "threads", 1);
+        ReflectionTestUtils.setField(passwordHashingPool, "queueCapacity", 4);
+        ReflectionTestUtils.setField(passwordHashingPool, "timeoutMillis", 5_000L);
+        passwordHashingPool.init();
+
+        userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "loginRateLimiter", loginRateLimiter);
+        ReflectionTestUtils.setField(userService, "passwordHashingPool", passwordHashingPool);
+        ReflectionTestUtils.setField(userService, "jwtService", jwtService);
+        ReflectionTestUtils.setField(userService, "refreshTokenService", refreshTokenService);
+
+        User alice = new User();
+        alice.setId(1L);
+        alice.setUsername("alice");
+        alice.setPassword(encoder.encode("correct horse"));
+        alice.setRoles(Set.of(Role.PATIENT));
+        when(userRepository.findForLogin("alice")).thenReturn(List.of(alice));
+        when(userRepository.findForLogin("nobody")).thenReturn(List.of());
+        when(jwtService.generateToken(any(User.class))).thenReturn("access-token");
+        when(refreshTokenService.issue(any(User.class))).thenReturn("refresh-token");
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingPool.shutdown();
+    }
+
+    @Test
+    void unknownAccountStillCostsOneHash() {
+        assertInvalidCredentials(() -> userService.login("nobody", "guess", "10.0.0.1"));
+
+        verify(encoder, times(1)).matches(anyString(), anyString());
+    }
+
+    @Test
+    void wrongPasswordCostsOneHashAndTheSameAnswer() {
+        assertInvalidCredentials(() -> userService.login("alice", "guess", "10.0.0.1"));
+
+        verify(encoder, times(1)).matches(anyString(), anyString());
+    }
+
+    @Test
+    void rightPasswordLogsIn() {
+        UserService.LoginResult result = userService.login("alice", "correct horse", "10.0.0.1");
+
+        assertThat(result.user().getUsername()).isEqualTo("alice");
+        assertThat(result.token()).isEqualTo("access-token");
+        assertThat(result.refreshToken()).isEqualTo("refresh-token");
+    }
+
+    @Test
+    void rateLimitedAttemptCostsNoQueryAndNoHash() {
+        doThrow(new LoginRateLimiter.RateLimitedException(LoginRateLimiter.Scope.ACCOUNT, 12))
+                .when(loginRateLimiter).acquire("10.0.0.1", "alice");
+
+        assertThatThrownBy(() -> userService.login("alice", "guess", "10.0.0.1"))
+                .isInstanceOf(LoginRateLimiter.RateLimitedException.class);
+
+        verify(userRepository, never()).findForLogin(anyString());
+        verify(encoder, never()).matches(anyString(), anyString());
+    }
+
+    private static void assertInvalidCredentials(Runnable call) {
+        assertThatThrownBy(call::run)
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+                    assertThat(e.getReason()).isEqualTo("Invalid credentials");
+                });
+    }
+}
@@ -0,0 +1,147 @@
+package com.docorbitbackend.services;
+
+import com.docorbitbackend.enums.WaitlistStatus;
+import com.docorbitbackend.models.Appointment;
+import com.docorbitbackend.models.Clinic;
+import com.docorbitbackend.models.Doctor;
+import com.docorbitbackend.models.User;
+import com.docorbitbackend.models.WaitlistEntry;
+import com.docorbitbackend.repositories.AppointmentRepository;
+import com.docorbitbackend.repositories.WaitlistEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Freed-slot assignment. No transaction is active, so joins reach the queues
+ * at once (as after a commit).
+ */
+class WaitlistServiceTest {
+
+    private final WaitlistEntryRepository waitlistRepository = mock(WaitlistEntryRepository.class);
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final Map<Long, WaitlistEntry> entries = new HashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private WaitlistService waitlist;
+    private Doctor doctor;
+
+    @BeforeEach
+    void setUp() {
+        when(waitlistRepository.save(any(WaitlistEntry.class))).thenAnswer(inv -> {
+            WaitlistEntry entry = inv.getArgument(0);
+            if (entry.getId() == null) entry.setId(ids.incrementAndGet());
+            entries.put(entry.getId(), entry);
+            return entry;
+        });
+        when(waitlistRepository.findById(anyLong())).thenAnswer(inv -> Optional.ofNullable(entries.get(inv.<Long>getArgument(0))));
+        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(inv -> {
+            Appointment appointment = inv.getArgument(0);
+            appointment.setId(1_000L);
+            return appointment;
+        });
+
+        doctor = new Doctor();
+        doctor.setId(42L);
+        doctor.setSpecialization("Cardiology");
+        doctor.setClinic(new Clinic());
+        waitlist = new WaitlistService(waitlistRepository, appointmentRepository);
+    }
+
+    @Test
+    void fittingWaiterFarDownTheQueueStillGetsTheSlot() {
+        LocalDate slotDay = LocalDate.now().plusDays(10);
+        // 200 earlier waiters who only want other days
+        for (long patient = 1; patient <= 200; patient++) {
+            waitlist.join(patient(patient), null, "Cardiology", slotDay.plusDays(1), slotDay.plusDays(5));
+        }
+        WaitlistEntry fitting = waitlist.join(patient(999), null, "Cardiology", slotDay, slotDay);
+
+        Optional<Appointment> assigned = waitlist.assignFreedSlot(cancelled(slotDay, LocalTime.of(10, 0)));
+
+        assertThat(assigned).isPresent();
+        assertThat(assigned.get().getPatient().getId()).isEqualTo(999L);
+        assertThat(fitting.getStatus()).isEqualTo(WaitlistStatus.ASSIGNED);
+    }
+
+    @Test
+    void earliestFittingWaiterAcrossBothQueuesWins() {
+        LocalDate slotDay = LocalDate.now().plusDays(3);
+        WaitlistEntry first = waitlist.join(patient(1), null, "Cardiology", null, null);
+        waitlist.join(patient(2), 42L, null, null, null);
+
+        Optional<Appointment> assigned = waitlist.assignFreedSlot(cancelled(slotDay, LocalTime.of(9, 30)));
+
+        assertThat(assigned).map(a -> a.getPatient().getId()).contains(1L);
+        assertThat(first.getStatus()).isEqualTo(WaitlistStatus.ASSIGNED);
+        assertThat(waitlist.queueLength(42L)).isEqualTo(1);
+    }
+
+    @Test
+    void waiterAlreadyBookedAtThatTimeIsPassedOver() {
+        LocalDate slotDay = LocalDate.now().plusDays(3);
+        LocalTime time = LocalTime.of(11, 0);
+        WaitlistEntry busy = waitlist.join(patient(1), 42L, null, null, null);
+        waitlist.join(patient(2), 42L, null, null, null);
+        when(appointmentRepository.patientHasAppointmentAt(1L, slotDay, time)).thenReturn(true);
+
+        Optional<Appointment> assigned = waitlist.assignFreedSlot(cancelled(slotDay, time));
+
+        assertThat(assigned).map(a -> a.getPatient().getId()).contains(2L);
+        // Keeps their place for the next slot
+        assertThat(busy.getStatus()).isEqualTo(WaitlistStatus.WAITING);
+        assertThat(waitlist.queueLength(42L)).isEqualTo(1);
+    }
+
+    @Test
+    void slotEarlierTodayIsNotReassigned() {
+        waitlist.join(patient(1), 42L, null, null, null);
+        LocalTime now = LocalTime.now();
+        // Skip right after midnight, when there is no earlier time today to cancel
+        assumeTrue(now.isAfter(LocalTime.of(0, 1)));
+
+        Optional<Appointment> assigned = waitlist.assignFreedSlot(cancelled(LocalDate.now(), now.minusMinutes(1)));
+
+        assertThat(assigned).isEmpty();
+        verify(appointmentRepository, never()).save(any());
+        assertThat(waitlist.queueLength(42L)).isEqualTo(1);
+    }
+
+    @Test
+    void pastDayIsNotReassigned() {
+        waitlist.join(patient(1), 42L, null, null, null);
+
+        assertThat(waitlist.assignFreedSlot(cancelled(LocalDate.now().minusDays(1), LocalTime.of(10, 0)))).isEmpty();
+    }
+
+    private Appointment cancelled(LocalDate date, LocalTime time) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setClinic(doctor.getClinic());
+        appointment.setPatient(patient(-1));
+        appointment.setAppointmentDate(date);
+        appointment.setAppointmentTime(time);
+        return appointment;
+    }
+
+    private static User patient(long id) {
+        User patient = new User();
+        patient.setId(id);
+        return patient;
+    }
+}
@@ -0,0 +1,62 @@
+// src/api/authFetch.js
+// fetch() with the stored access token. Access tokens are short-lived, so on a 401
+// the refresh token is traded for a new pair once and the request is retried.
+
+const API_BASE = "http://localhost:8080";
+
+// Concurrent 401s share one refresh call (a refresh token can only be used once)
+let refreshing = null;
+
+export const saveTokens = (data) => {
+    localStorage.setItem("jwtToken", data.token);
+    if (data.refreshToken) localStorage.setItem("refreshToken", data.refreshToken);
+};
+
+const refreshTokens = async () => {
+    const refreshToken = localStorage.getItem("refreshToken");
+    if (!refreshToken) return false;
+
+    try {
+        const res = await fetch(`${API_BASE}/api/auth/refresh`, {
+            method: "POST",
+            headers: { "Content-Type": "application/json" },
+            body: JSON.stringify({ refreshToken }),
+        });
+        if (!res.ok) return false;
+
+        saveTokens(await res.json());
+        return true;
+    } catch (err) {
+        console.error("⚠️ Token refresh failed:", err.message);
+        return false;
+    }
+};
+
+const withToken = (options) => {
+    const token = localStorage.getItem("jwtToken");
+    return {
+        ...options,
+        headers: {
+            ...(options.headers || {}),
+            ...(token ? { Authorization: `Bearer ${token}` } : {}),
+        },
+    };
+};
+
+export const authFetch = async (url, options = {}) => {
+    const res = await fetch(url, withToken(options));
+    if (res.status !== 401) return res;
+
+    if (!refreshing) {
+        refreshing = refreshTokens().finally(() => {
+            refreshing = null;
+        });
+    }
+    if (!(await refreshing)) {
+        // ✅ Session is over: clear it so the app shows the logged-out state
+        ["jwtToken", "refreshToken", "userLoggedIn"].forEach((k) => localStorage.removeItem(k));
+        window.dispatchEvent(new Event("authChanged"));
+        return res;
+    }
+    return fetch(url, withToken(options));
+};
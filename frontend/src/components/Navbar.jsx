@@ -35,6 +35,15 @@ const Navbar = () => {
     }, [location]);
 
     const handleLogout = () => {
+        // Revoke the refresh token server-side; the short-lived access token just expires
+        const refreshToken = localStorage.getItem("refreshToken");
+        if (refreshToken) {
+            fetch("http://localhost:8080/api/auth/logout", {
+                method: "POST",
+                headers: { "Content-Type": "application/json" },
+                body: JSON.stringify({ refreshToken }),
+            }).catch(() => {});
+        }
         localStorage.clear();
         setIsLoggedIn(false);
         setUserName("");
@@ -1,5 +1,6 @@
 import React, { useState, useEffect } from "react";
 import { useParams, useNavigate } from "react-router-dom";
+import { authFetch } from "../api/authFetch";
 
 export default function BookAppointment() {
     const { id } = useParams();
@@ -50,13 +51,10 @@ export default function BookAppointment() {
 
         setIsBooking(true);
         try {
-            const token = localStorage.getItem("jwtToken");
-
-            const res = await fetch("http://localhost:8080/api/appointments/book", {
+            const res = await authFetch("http://localhost:8080/api/appointments/book", {
                 method: "POST",
                 headers: {
                     "Content-Type": "application/x-www-form-urlencoded",
-                    ...(token ? { Authorization: `Bearer ${token}` } : {}),
                 },
                 body: new URLSearchParams({
                     doctorId: doctor.id,
@@ -1,5 +1,6 @@
 import React, { useState, useEffect } from "react";
 import { useNavigate } from "react-router-dom";
+import { saveTokens } from "../api/authFetch";
 
 const Login = () => {
     const navigate = useNavigate();
@@ -40,8 +41,8 @@ const Login = () => {
 
             if (!res.ok) throw new Error(data.error || "Login failed");
 
-            // ✅ Save token & user info
-            localStorage.setItem("jwtToken", data.token);
+            // ✅ Save tokens & user info
+            saveTokens(data);
             localStorage.setItem("userLoggedIn", "true");
             localStorage.setItem("userName", data.username);
             localStorage.setItem("userEmail", data.email);
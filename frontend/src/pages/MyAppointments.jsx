@@ -1,5 +1,6 @@
 import React, { useEffect, useState } from "react";
 import { useNavigate } from "react-router-dom";
+import { authFetch } from "../api/authFetch";
 
 export default function MyAppointments() {
     const [appointments, setAppointments] = useState([]);
@@ -17,9 +18,7 @@ export default function MyAppointments() {
             try {
                 if (!token) throw new Error("No token found");
 
-                const res = await fetch("http://localhost:8080/api/appointments/my", {
-                    headers: { Authorization: `Bearer ${token}` },
-                });
+                const res = await authFetch("http://localhost:8080/api/appointments/my");
 
                 if (!res.ok) throw new Error(`Fetch failed: ${res.status}`);
 
@@ -53,12 +52,9 @@ export default function MyAppointments() {
         setCanceling(true);
 
         try {
-            const res = await fetch(
+            const res = await authFetch(
                 `http://localhost:8080/api/appointments/${confirming}/cancel`,
-                {
-                    method: "PATCH",
-                    headers: { Authorization: `Bearer ${token}` },
-                }
+                { method: "PATCH" }
             );
 
             if (!res.ok) throw new Error("Cancel failed");
@@ -1,5 +1,6 @@
 import React, { useState, useEffect } from "react";
 import { useNavigate } from "react-router-dom";
+import { saveTokens } from "../api/authFetch";
 
 export default function Signup() {
     const navigate = useNavigate();
@@ -99,7 +100,7 @@ export default function Signup() {
 
             // Save token + user info
             localStorage.setItem("userLoggedIn", "true");
-            localStorage.setItem("jwtToken", loginData.token);
+            saveTokens(loginData);
             localStorage.setItem("userName", loginData.username || formData.name);
             localStorage.setItem("userEmail", loginData.email || formData.email);
             localStorage.setItem("userType", userType);